@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -7,10 +8,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -34,17 +39,44 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBookingsByBooker(long bookerId, State state, int from, int size) {
-        Map<String, Object> parameters = Map.of("state", state, "from", from, "size", size);
-        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+    public ResponseEntity<Object> patchBookings(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", userId, decisions);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, State state, int from, int size) {
-        Map<String, Object> parameters = Map.of("state", state, "from", from, "size", size);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByBooker(long bookerId, State state, String cursor, int from, int size) {
+        return getBookings("", bookerId, state, cursor, from, size);
+    }
+
+    public ResponseEntity<Object> getBookingsByOwner(long userId, State state, String cursor, int from, int size) {
+        return getBookings("/owner", userId, state, cursor, from, size);
+    }
+
+    public ResponseEntity<Object> getBookingCountsByBooker(long bookerId) {
+        return get("/counts", bookerId);
+    }
+
+    public ResponseEntity<Object> getBookingCountsByOwner(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public void exportBookingsByBooker(long bookerId, HttpServletResponse response) throws IOException {
+        getStream("/export", bookerId, response);
+    }
+
+    public void exportBookingsByOwner(long userId, HttpServletResponse response) throws IOException {
+        getStream("/owner/export", userId, response);
     }
 
     public ResponseEntity<Object> getBookingByBookerOrOwnerItem(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
+
+    private ResponseEntity<Object> getBookings(String path, long userId, State state, String cursor, int from, int size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("state", state, "from", from, "size", size));
+        if (cursor == null) {
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get(path + "?state={state}&from={from}&size={size}&cursor={cursor}", userId, parameters);
+    }
 }
\ No newline at end of file
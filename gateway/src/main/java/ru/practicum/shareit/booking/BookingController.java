@@ -1,17 +1,24 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.State;
 
+import java.io.IOException;
+import java.util.List;
+
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -36,14 +43,43 @@ public class BookingController {
         return bookingClient.patchBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> patchBookings(@RequestHeader(HEADER_USER_ID) long userId,
+                                                @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecisionDto> decisions) {
+        return bookingClient.patchBookings(userId, decisions);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getBookingsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId,
                                                       @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                      @RequestParam(name = "cursor", required = false) String cursor,
                                                       @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
                                                       @Positive @RequestParam(name = "size", defaultValue = "10") int size) {
         State state = State.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        return bookingClient.getBookingsByBooker(bookerId, state, from, size);
+        return bookingClient.getBookingsByBooker(bookerId, state, cursor, from, size);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getBookingCountsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId) {
+        return bookingClient.getBookingCountsByBooker(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getBookingCountsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId) {
+        return bookingClient.getBookingCountsByOwner(ownerId);
+    }
+
+    @GetMapping("/export")
+    public void exportBookingsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId,
+                                       HttpServletResponse response) throws IOException {
+        bookingClient.exportBookingsByBooker(bookerId, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId,
+                                      HttpServletResponse response) throws IOException {
+        bookingClient.exportBookingsByOwner(ownerId, response);
     }
 
     @GetMapping("/{bookingId}")
@@ -55,11 +91,12 @@ public class BookingController {
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId,
                                                      @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                     @RequestParam(name = "cursor", required = false) String cursor,
                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
                                                      @Positive @RequestParam(name = "size", defaultValue = "10") int size) {
         State state = State.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        return bookingClient.getBookingsByOwner(ownerId, state, from, size);
+        return bookingClient.getBookingsByOwner(ownerId, state, cursor, from, size);
     }
 
 }
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -75,6 +79,53 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    // Тело ответа сервера копируется в ответ шлюза по мере чтения, без буферизации и разбора JSON
+    protected void getStream(String path, long userId, HttpServletResponse response) throws IOException {
+        exchangeStream(path, HttpMethod.GET, request -> {
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+            request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+        }, response);
+    }
+
+    // Тело запроса передаётся серверу по мере чтения, не накапливаясь в памяти шлюза
+    protected void postStream(String path, long userId, MediaType contentType, InputStream body,
+                              HttpServletResponse response) throws IOException {
+        exchangeStream(path, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(contentType);
+            request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+            request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(body::transferTo);
+            } else {
+                body.transferTo(request.getBody());
+            }
+        }, response);
+    }
+
+    private void exchangeStream(String path, HttpMethod method, RequestCallback requestCallback,
+                                HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, method, requestCallback,
+                    shareitServerResponse -> {
+                        copyStatusAndContentType(shareitServerResponse.getStatusCode(),
+                                shareitServerResponse.getHeaders().getContentType(), response);
+                        shareitServerResponse.getBody().transferTo(response.getOutputStream());
+                        return null;
+                    });
+        } catch (HttpStatusCodeException e) {
+            copyStatusAndContentType(e.getStatusCode(), MediaType.APPLICATION_JSON, response);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private static void copyStatusAndContentType(HttpStatusCode status, @Nullable MediaType contentType,
+                                                 HttpServletResponse response) {
+        response.setStatus(status.value());
+        if (contentType != null) {
+            response.setContentType(contentType.toString());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -11,6 +13,10 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -29,6 +35,11 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
+    public void importItems(long userId, MediaType contentType, InputStream body,
+                            HttpServletResponse response) throws IOException {
+        postStream("/import", userId, contentType, body, response);
+    }
+
     public ResponseEntity<Object> patchItem(long userId, long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
@@ -37,13 +48,38 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of("from", from, "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getAllItems(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text, long userId) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("?text={text}", userId, parameters);
+    public ResponseEntity<Object> searchItems(String text, long userId, int from, int size,
+                                              LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("text", text, "from", from, "size", size));
+        if (start == null) {
+            return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return get("/search?text={text}&from={from}&size={size}&start={start}&end={end}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(long userId, String prefix, int size) {
+        Map<String, Object> parameters = Map.of("prefix", prefix, "size", size);
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, String after, int size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("size", size));
+        if (after == null) {
+            return get("/" + itemId + "/comments?size={size}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get("/" + itemId + "/comments?size={size}&after={after}", userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
@@ -1,8 +1,17 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -10,6 +19,9 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+
 @Controller
 @RequiredArgsConstructor
 @RequestMapping(path = "/items")
@@ -24,6 +36,15 @@ public class ItemController {
         return itemClient.addItem(userId, itemDto);
     }
 
+    // Строки проверяет сервер по тем же правилам, что и ItemDto: разбор здесь потребовал бы буферизовать загрузку
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void importItems(@RequestHeader(HEADER_USER_ID) long userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        itemClient.importItems(userId, MediaType.parseMediaType(request.getContentType()), request.getInputStream(),
+                response);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> patchItem(@RequestHeader(HEADER_USER_ID) long userId,
                                             @RequestBody ItemDto itemDto,
@@ -37,6 +58,17 @@ public class ItemController {
         return itemClient.getItem(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(HEADER_USER_ID) long userId,
+                                                  @PathVariable long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllItems(@RequestHeader(HEADER_USER_ID) long userId) {
         return itemClient.getAllItems(userId);
@@ -44,8 +76,33 @@ public class ItemController {
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestHeader(HEADER_USER_ID) long userId,
-                                              @NotBlank @RequestParam String text) {
-        return itemClient.searchItems(text, userId);
+                                              @NotBlank @RequestParam String text,
+                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") int size,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Нужно указать и начало, и окончание периода");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания");
+        }
+        return itemClient.searchItems(text, userId, from, size, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestHeader(HEADER_USER_ID) long userId,
+                                               @NotBlank @RequestParam String prefix,
+                                               @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10") int size) {
+        return itemClient.suggestNames(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(HEADER_USER_ID) long userId,
+                                              @PathVariable long itemId,
+                                              @RequestParam(name = "after", required = false) String after,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") int size) {
+        return itemClient.getComments(userId, itemId, after, size);
     }
 
     @PostMapping("/{itemId}/comment")
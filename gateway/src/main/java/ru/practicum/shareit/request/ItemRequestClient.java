@@ -10,6 +10,9 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
@@ -30,11 +33,20 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequest(long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getAllRequest(long userId, String cursor, int from, int size) {
+        Map<String, Object> parameters = new HashMap<>(Map.of("from", from, "size", size));
+        if (cursor == null) {
+            return get("/all?from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get("/all?from={from}&size={size}&cursor={cursor}", userId, parameters);
     }
 
     public ResponseEntity<Object> getRequest(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
+
+    public ResponseEntity<Object> getSuggestedItems(long userId, long requestId) {
+        return get("/" + requestId + "/suggested-items", userId);
+    }
 }
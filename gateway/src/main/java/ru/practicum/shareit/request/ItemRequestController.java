@@ -1,15 +1,19 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Controller
 @RequestMapping("/requests")
 @RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
     private final ItemRequestClient itemRequestClient;
@@ -26,8 +30,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(HEADER_USER_ID) long userId) {
-        return itemRequestClient.getAllRequest(userId);
+    public ResponseEntity<Object> getAllRequests(@RequestHeader(HEADER_USER_ID) long userId,
+                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
+                                                 @Positive @RequestParam(name = "size", defaultValue = "10") int size) {
+        return itemRequestClient.getAllRequest(userId, cursor, from, size);
     }
 
     @GetMapping("/{requestId}")
@@ -35,4 +42,10 @@ public class ItemRequestController {
                                                  @PathVariable long requestId) {
         return itemRequestClient.getRequest(userId, requestId);
     }
+
+    @GetMapping("/{requestId}/suggested-items")
+    public ResponseEntity<Object> getSuggestedItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                                    @PathVariable long requestId) {
+        return itemRequestClient.getSuggestedItems(userId, requestId);
+    }
 }
@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.service.interfaces.BookingService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
@@ -14,6 +22,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
     private final BookingService bookingService;
 
     @PostMapping
@@ -29,10 +38,43 @@ public class BookingController {
         return bookingService.patchBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> patchBookings(@RequestBody List<BookingDecisionDto> decisions,
+                                                        @RequestHeader(HEADER_USER_ID) long userId) {
+        return bookingService.patchBookings(decisions, userId);
+    }
+
     @GetMapping
-    public List<BookingDto> getBookingsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId,
-                                                @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.findBookingsByBookerIdAndState(bookerId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId,
+                                                                @RequestParam(defaultValue = "ALL") State state,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "0") int from,
+                                                                @RequestParam(defaultValue = "10") int size) {
+        return toResponse(bookingService.findBookingsByBookerIdAndState(bookerId, state, cursor, from, size));
+    }
+
+    @GetMapping("/counts")
+    public BookingCountsDto getBookingCountsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId) {
+        return bookingService.countBookingsByBookerId(bookerId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto getBookingCountsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId) {
+        return bookingService.countBookingsByOwnerId(ownerId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByBooker(@RequestHeader(HEADER_USER_ID) long bookerId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingService.exportBookingsByBookerId(bookerId));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingService.exportBookingsByOwnerId(ownerId));
     }
 
     @GetMapping("{bookingId}")
@@ -42,8 +84,20 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId,
-                                               @RequestParam(defaultValue = "ALL") State state) {
-        return bookingService.findBookingsByOwnerIdAndState(ownerId, state);
+    public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestHeader(HEADER_USER_ID) long ownerId,
+                                                               @RequestParam(defaultValue = "ALL") State state,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size) {
+        return toResponse(bookingService.findBookingsByOwnerIdAndState(ownerId, state, cursor, from, size));
+    }
+
+    private static ResponseEntity<List<BookingDto>> toResponse(Window<BookingDto> bookings) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.hasNext()) {
+            BookingDto last = bookings.getContent().getLast();
+            response.header(HEADER_NEXT_CURSOR, KeysetCursor.of(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings.getContent());
     }
-}
\ No newline at end of file
+}
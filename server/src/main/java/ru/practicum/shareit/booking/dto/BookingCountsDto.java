@@ -0,0 +1,4 @@
+package ru.practicum.shareit.booking.dto;
+
+public record BookingCountsDto(Long all, Long current, Long past, Long future, Long waiting, Long rejected) {
+}
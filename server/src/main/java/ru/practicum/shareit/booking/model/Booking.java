@@ -15,7 +15,22 @@ import java.time.LocalDateTime;
 @ToString
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "request", subgraph = "request")
+                }),
+                @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor"))
+        })
 public class Booking {
+    // Весь граф, который обходит BookingMapper, загружается одним запросом
+    public static final String DETAILS_GRAPH = "Booking.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,4 +47,8 @@ public class Booking {
     @Column(name = "status")
     @Enumerated(value = EnumType.STRING)
     private Status status;
+    // Решение по бронированию и его истечение меняют статус независимо, версия не даёт одному затереть другое
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
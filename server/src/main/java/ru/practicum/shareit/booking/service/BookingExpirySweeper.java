@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class BookingExpirySweeper {
+    private final BookingStorage bookingStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter expiredBookings;
+
+    public BookingExpirySweeper(BookingStorage bookingStorage,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${shareit.booking.expiry.batch-size}") int batchSize,
+                                MeterRegistry meterRegistry) {
+        this.bookingStorage = bookingStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.expiredBookings = Counter.builder("shareit.bookings.expired")
+                .description("Бронирования, не подтверждённые до даты начала")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval}",
+            initialDelayString = "${shareit.booking.expiry.interval}")
+    public void expireStaleBookings() {
+        expireStaleBookings(LocalDateTime.now());
+    }
+
+    // Каждая порция обновляется в отдельной транзакции, чтобы не держать блокировки на всех строках сразу.
+    // Порция может истечь не целиком, если по части бронирований успели принять решение, поэтому
+    // обход идёт до пустой выборки, а не до первой неполной порции
+    public int expireStaleBookings(LocalDateTime now) {
+        int expired = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<Long> ids = bookingStorage.findIdsByStatusAndStartBefore(Status.WAITING, now, Limit.of(batchSize));
+                return ids.isEmpty() ? null : bookingStorage.updateStatusByIdInAndStatus(ids, Status.WAITING, Status.EXPIRED);
+            });
+            if (updated == null) {
+                return expired;
+            }
+            expired += updated;
+            expiredBookings.increment(updated);
+        }
+    }
+}
@@ -1,44 +1,77 @@
 package ru.practicum.shareit.booking.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.interfaces.BookingService;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Transactional(readOnly = true)
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
     private final BookingStorage bookingStorage;
     private final UserStorage userStorage;
+    private final UserExistenceCache userExistenceCache;
     private final ItemStorage itemStorage;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingLocks itemBookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     @Override
     public BookingDto addBooking(CreateBookingDto createBookingDto, long userId) {
-        User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceCache.validateUser(userId);
+        User user = userStorage.getReferenceById(userId);
         Item item = itemStorage.findById(createBookingDto.getItemId()).orElseThrow(() -> new NotFoundException("Предмет не найден"));
         if (!item.getAvailable()) {
             throw new ValidationException("Предмет недоступен");
         }
-        List<Booking> bookings = bookingStorage.findAllByIntersectingStartAndEnd(item.getId(), createBookingDto.getStart(), createBookingDto.getEnd());
-        if (!bookings.isEmpty()) {
+        itemBookingLocks.lockUntilCompletion(item.getId());
+        if (bookingIntervalIndex.isIntersecting(item.getId(), createBookingDto.getStart(), createBookingDto.getEnd())) {
             throw new ValidationException("Невозможно забронировать");
         }
         Booking booking = BookingMapper.toBookingNew(createBookingDto, item, user);
@@ -48,54 +81,110 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     @Override
     public BookingDto patchBooking(long bookingId, long userId, boolean approved) {
+        long itemId = bookingStorage.findItemIdById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+        // Статус читается под блокировкой предмета, поэтому два параллельных решения не могут оба увидеть WAITING.
+        // От истечения бронирования, которое блокировку не берёт, защищает версия строки
+        itemBookingLocks.lockUntilCompletion(itemId);
         Booking booking = bookingStorage.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
-        Item item = itemStorage.findById(booking.getItem().getId()).orElseThrow(() -> new NotFoundException("Предмет не найден"));
-        if (item.getOwner().getId() != userId) {
+        if (booking.getItem().getOwner().getId() != userId) {
             throw new ValidationException("Вы не владелец этого предмета");
         }
         if (booking.getStatus() != Status.WAITING) {
             throw new ValidationException("Бронирование уже подтверждено");
         }
         if (approved) {
+            if (bookingIntervalIndex.isIntersecting(itemId, booking.getStart(), booking.getEnd())) {
+                throw new ValidationException("Даты бронирования уже заняты");
+            }
             booking.setStatus(Status.APPROVED);
+            bookingIntervalIndex.addApproved(itemId, booking.getStart(), booking.getEnd());
         } else {
             booking.setStatus(Status.REJECTED);
         }
-        return BookingMapper.toBookingDto(bookingStorage.save(booking));
+        return BookingMapper.toBookingDto(bookingStorage.saveAndFlush(booking));
     }
 
+    @Transactional
     @Override
-    public List<BookingDto> findBookingsByOwnerIdAndState(long userId, State state) {
-        User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingStorage.findAllByItemOwnerIdOrderByStartDesc(userId);
+    public List<BookingDecisionResultDto> patchBookings(List<BookingDecisionDto> decisions, long userId) {
+        List<Long> bookingIds = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .toList();
+        // Как и для одиночного решения, бронирования читаются после захвата блокировок их предметов
+        itemBookingLocks.lockAllUntilCompletion(bookingStorage.findItemIdsByIdIn(bookingIds));
+        Map<Long, Booking> bookings = bookingStorage.findAllByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        // Подтверждённые в этом пакете интервалы попадут в индекс только после фиксации
+        Map<Long, List<BookingInterval>> approvedInBatch = new HashMap<>();
+        Map<Long, Status> decided = new HashMap<>();
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (BookingDecisionDto decision : decisions) {
+            Booking booking = bookings.get(decision.getBookingId());
+            String error = decided.containsKey(decision.getBookingId())
+                    ? "Бронирование уже подтверждено"
+                    : validateDecision(booking, decision.isApproved(), userId, approvedInBatch);
+            if (error != null) {
+                results.add(decisionResult(decision.getBookingId(),
+                        decided.getOrDefault(decision.getBookingId(), booking != null ? booking.getStatus() : null), error));
+                continue;
+            }
+            // Каждое решение пишется отдельным условным UPDATE: строка, изменённая истечением или одиночным
+            // решением после выборки, отклоняется сама, не откатывая остальные решения пакета
+            Status status = decision.isApproved() ? Status.APPROVED : Status.REJECTED;
+            if (bookingStorage.updateStatusByIdAndStatusAndVersion(booking.getId(), Status.WAITING, booking.getVersion(), status) == 0) {
+                results.add(decisionResult(booking.getId(), null, "Бронирование изменено параллельным запросом"));
+                continue;
+            }
+            // Сущность в контексте устарела, последующие чтения в транзакции загрузят строку заново
+            entityManager.detach(booking);
+            decided.put(booking.getId(), status);
+            if (decision.isApproved()) {
+                approvedInBatch.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>())
+                        .add(new BookingInterval(booking.getStart(), booking.getEnd()));
+                bookingIntervalIndex.addApproved(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+            }
+            results.add(decisionResult(booking.getId(), status, null));
+        }
+        return results;
+    }
+
+    @Override
+    public Window<BookingDto> findBookingsByOwnerIdAndState(long userId, State state, String cursor, int from, int size) {
+        userExistenceCache.validateUser(userId);
+        ScrollPosition position = KeysetCursor.toScrollPosition(cursor, from, "start");
+        Limit limit = toLimit(size);
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingStorage.findAllByItemOwnerIdOrderByStartDescIdDesc(userId, position, limit);
             case CURRENT ->
-                    bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsAfterOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
+                    bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
             case PAST ->
-                    bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsBeforeOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
+                    bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
             case FUTURE ->
-                    bookingStorage.findAllByItemOwnerIdAndStatusAndStartIsAfterOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
-            case WAITING -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, Status.WAITING);
-            case REJECTED -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, Status.REJECTED);
+                    bookingStorage.findAllByItemOwnerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
+            case WAITING -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId, Status.WAITING, position, limit);
+            case REJECTED -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId, Status.REJECTED, position, limit);
         };
-        return bookings.stream().map(BookingMapper::toBookingDto).toList();
+        return bookings.map(BookingMapper::toBookingDto);
     }
 
     @Override
-    public List<BookingDto> findBookingsByBookerIdAndState(long userId, State state) {
-        User user = userStorage.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingStorage.findAllByBookerIdOrderByStartDesc(userId);
+    public Window<BookingDto> findBookingsByBookerIdAndState(long userId, State state, String cursor, int from, int size) {
+        userExistenceCache.validateUser(userId);
+        ScrollPosition position = KeysetCursor.toScrollPosition(cursor, from, "start");
+        Limit limit = toLimit(size);
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingStorage.findAllByBookerIdOrderByStartDescIdDesc(userId, position, limit);
             case CURRENT ->
-                    bookingStorage.findAllByBookerIdAndStatusAndEndIsAfterOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
+                    bookingStorage.findAllByBookerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
             case PAST ->
-                    bookingStorage.findAllByBookerIdAndStatusAndEndIsBeforeOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
+                    bookingStorage.findAllByBookerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
             case FUTURE ->
-                    bookingStorage.findAllByBookerIdAndStatusAndStartIsAfterOrderByStartDesc(userId, Status.APPROVED, LocalDateTime.now());
-            case WAITING -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(userId, Status.WAITING);
-            case REJECTED -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(userId, Status.REJECTED);
+                    bookingStorage.findAllByBookerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(userId, Status.APPROVED, LocalDateTime.now(), position, limit);
+            case WAITING -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(userId, Status.WAITING, position, limit);
+            case REJECTED -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(userId, Status.REJECTED, position, limit);
         };
-        return bookings.stream().map(BookingMapper::toBookingDto).toList();
+        return bookings.map(BookingMapper::toBookingDto);
     }
 
     @Override
@@ -106,4 +195,89 @@ public class BookingServiceImpl implements BookingService {
         }
         return BookingMapper.toBookingDto(booking);
     }
+
+    @Override
+    public BookingCountsDto countBookingsByOwnerId(long userId) {
+        userExistenceCache.validateUser(userId);
+        return bookingStorage.countByItemOwnerIdGroupByState(userId, LocalDateTime.now());
+    }
+
+    @Override
+    public BookingCountsDto countBookingsByBookerId(long userId) {
+        userExistenceCache.validateUser(userId);
+        return bookingStorage.countByBookerIdGroupByState(userId, LocalDateTime.now());
+    }
+
+    @Override
+    public StreamingResponseBody exportBookingsByOwnerId(long userId) {
+        userExistenceCache.validateUser(userId);
+        return outputStream -> writeBookings(() -> bookingStorage.streamAllByItemOwnerIdOrderByStartDescIdDesc(userId), outputStream);
+    }
+
+    @Override
+    public StreamingResponseBody exportBookingsByBookerId(long userId) {
+        userExistenceCache.validateUser(userId);
+        return outputStream -> writeBookings(() -> bookingStorage.streamAllByBookerIdOrderByStartDescIdDesc(userId), outputStream);
+    }
+
+    // Выгрузка выполняется после выхода из контроллера, поэтому открывает собственную транзакцию.
+    // Контекст персистентности периодически очищается, чтобы память не росла с размером истории
+    private void writeBookings(Supplier<Stream<Booking>> bookings, OutputStream outputStream) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Booking> stream = bookings.get()) {
+                int written = 0;
+                for (Iterator<Booking> iterator = stream.iterator(); iterator.hasNext(); ) {
+                    outputStream.write(objectMapper.writeValueAsBytes(BookingMapper.toBookingDto(iterator.next())));
+                    outputStream.write('\n');
+                    if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                        outputStream.flush();
+                        entityManager.clear();
+                    }
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static BookingDecisionResultDto decisionResult(Long bookingId, Status status, String error) {
+        return BookingDecisionResultDto.builder()
+                .bookingId(bookingId)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    private String validateDecision(Booking booking, boolean approved, long userId,
+                                    Map<Long, List<BookingInterval>> approvedInBatch) {
+        if (booking == null) {
+            return "Бронирование не найдено";
+        }
+        if (booking.getItem().getOwner().getId() != userId) {
+            return "Вы не владелец этого предмета";
+        }
+        if (booking.getStatus() != Status.WAITING) {
+            return "Бронирование уже подтверждено";
+        }
+        if (approved) {
+            long itemId = booking.getItem().getId();
+            boolean intersectsBatch = approvedInBatch.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(interval -> !booking.getStart().isAfter(interval.end())
+                            && !booking.getEnd().isBefore(interval.start()));
+            if (intersectsBatch || bookingIntervalIndex.isIntersecting(itemId, booking.getStart(), booking.getEnd())) {
+                return "Даты бронирования уже заняты";
+            }
+        }
+        return null;
+    }
+
+    private Limit toLimit(int size) {
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+        return Limit.of(size);
+    }
 }
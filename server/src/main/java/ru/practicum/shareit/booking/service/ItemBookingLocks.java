@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Полосатые блокировки по id предмета: операции над одним предметом выполняются последовательно,
+// над разными предметами - параллельно
+@Component
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+
+    public ItemBookingLocks(@Value("${shareit.booking.lock-stripes}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Блокировка снимается после завершения транзакции, когда afterCommit-обработчики уже отработали
+    public void lockUntilCompletion(long itemId) {
+        lockAllUntilCompletion(List.of(itemId));
+    }
+
+    // Полосы захватываются по возрастанию номера, чтобы параллельные пакеты не могли взаимно заблокироваться
+    public void lockAllUntilCompletion(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка предмета требует активной транзакции");
+        }
+        int[] indexes = itemIds.stream()
+                .mapToInt(itemId -> Math.floorMod(Long.hashCode(itemId), stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int index : indexes) {
+            ReentrantLock lock = stripes[index];
+            lock.lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+}
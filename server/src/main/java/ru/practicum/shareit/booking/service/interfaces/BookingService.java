@@ -1,6 +1,11 @@
 package ru.practicum.shareit.booking.service.interfaces;
 
+import org.springframework.data.domain.Window;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.State;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 
@@ -11,9 +16,19 @@ public interface BookingService {
 
     BookingDto patchBooking(long bookingId, long userId, boolean approved);
 
-    List<BookingDto> findBookingsByOwnerIdAndState(long userId, State state);
+    List<BookingDecisionResultDto> patchBookings(List<BookingDecisionDto> decisions, long userId);
 
-    List<BookingDto> findBookingsByBookerIdAndState(long userId, State state);
+    Window<BookingDto> findBookingsByOwnerIdAndState(long userId, State state, String cursor, int from, int size);
+
+    Window<BookingDto> findBookingsByBookerIdAndState(long userId, State state, String cursor, int from, int size);
 
     BookingDto findBookingByOwnerAndBooker(long userId, long bookingId);
+
+    BookingCountsDto countBookingsByOwnerId(long userId);
+
+    BookingCountsDto countBookingsByBookerId(long userId);
+
+    StreamingResponseBody exportBookingsByOwnerId(long userId);
+
+    StreamingResponseBody exportBookingsByBookerId(long userId);
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Индекс подтверждённых бронирований: для каждого предмета хранит объединение интервалов,
+// отсортированное по началу, и позволяет проверить пересечение без запроса в базу.
+// Число предметов в индексе ограничено, давно не проверявшиеся вытесняются
+@Component
+public class BookingIntervalIndex {
+    private final BookingStorage bookingStorage;
+    private final BoundedCache<Long, NavigableMap<LocalDateTime, LocalDateTime>> intervals;
+
+    public BookingIntervalIndex(BookingStorage bookingStorage,
+                                @Value("${shareit.booking.interval-index.max-size}") int maxSize,
+                                @Value("${shareit.booking.interval-index.ttl}") Duration ttl) {
+        this.bookingStorage = bookingStorage;
+        this.intervals = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public boolean isIntersecting(long itemId, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> interval = getIntervals(itemId).floorEntry(end);
+        return interval != null && !interval.getValue().isBefore(start);
+    }
+
+    // Свободные промежутки окна [from, to] за один проход по отсортированным занятым интервалам.
+    // Границы свободного промежутка совпадают с границами соседних бронирований
+    public List<BookingInterval> findFreeIntervals(long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, LocalDateTime> busy = getIntervals(itemId);
+        LocalDateTime first = busy.floorKey(from);
+        List<BookingInterval> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (Map.Entry<LocalDateTime, LocalDateTime> interval : busy.tailMap(first != null ? first : from, true).entrySet()) {
+            if (interval.getKey().isAfter(to)) {
+                break;
+            }
+            if (interval.getKey().isAfter(freeStart)) {
+                free.add(new BookingInterval(freeStart, interval.getKey()));
+            }
+            if (interval.getValue().isAfter(freeStart)) {
+                freeStart = interval.getValue();
+            }
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new BookingInterval(freeStart, to));
+        }
+        return free;
+    }
+
+    // Подтверждение попадает в индекс только после фиксации транзакции
+    public void addApproved(long itemId, LocalDateTime start, LocalDateTime end) {
+        TransactionCallbacks.afterCommit(() -> intervals.update(itemId, current -> {
+            TreeMap<LocalDateTime, LocalDateTime> updated = new TreeMap<>(current);
+            merge(updated, start, end);
+            return Collections.unmodifiableNavigableMap(updated);
+        }));
+    }
+
+    public void invalidate(long itemId) {
+        TransactionCallbacks.afterCommit(() -> intervals.invalidate(itemId));
+    }
+
+    private NavigableMap<LocalDateTime, LocalDateTime> getIntervals(long itemId) {
+        return intervals.get(itemId, this::load);
+    }
+
+    // Загруженные внутри транзакции интервалы могут включать её незафиксированные изменения
+    private NavigableMap<LocalDateTime, LocalDateTime> load(long itemId) {
+        TreeMap<LocalDateTime, LocalDateTime> merged = new TreeMap<>();
+        for (BookingInterval interval : bookingStorage.findAllApprovedIntervalsByItemId(itemId)) {
+            merge(merged, interval.start(), interval.end());
+        }
+        NavigableMap<LocalDateTime, LocalDateTime> loaded = Collections.unmodifiableNavigableMap(merged);
+        TransactionCallbacks.onRollback(() -> intervals.remove(itemId, loaded));
+        return loaded;
+    }
+
+    // Поглощает все пересекающиеся с [start, end] интервалы, границы считаются включительно
+    private static void merge(TreeMap<LocalDateTime, LocalDateTime> target, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = end;
+        Map.Entry<LocalDateTime, LocalDateTime> interval = target.floorEntry(end);
+        while (interval != null && !interval.getValue().isBefore(mergedStart)) {
+            if (interval.getKey().isBefore(mergedStart)) {
+                mergedStart = interval.getKey();
+            }
+            if (interval.getValue().isAfter(mergedEnd)) {
+                mergedEnd = interval.getValue();
+            }
+            target.remove(interval.getKey());
+            interval = target.floorEntry(end);
+        }
+        target.put(mergedStart, mergedEnd);
+    }
+}
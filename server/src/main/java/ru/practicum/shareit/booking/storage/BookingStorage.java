@@ -1,40 +1,146 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingStorage extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(long bookerId);
+    String STATE_COUNTS = "coalesce(sum(case when b.status = 'APPROVED' and b.end > ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'APPROVED' and b.end < ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'APPROVED' and b.start > ?2 then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0), " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0)";
 
-    List<Booking> findAllByItemOwnerIdAndStatusAndEndIsAfterOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdOrderByStartDescIdDesc(long ownerId, ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByItemOwnerIdAndStatusAndEndIsBeforeOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(long ownerId, Status status, LocalDateTime time,
+                                                                                    ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByItemOwnerIdAndStatusAndStartIsAfterOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(long ownerId, Status status, LocalDateTime time,
+                                                                                     ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(long bookerId, Status status);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(long ownerId, Status status, LocalDateTime time,
+                                                                                      ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(long ownerId, Status status,
+                                                                       ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStatusAndEndIsAfterOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdOrderByStartDescIdDesc(long bookerId, ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStatusAndEndIsBeforeOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(long bookerId, Status status, LocalDateTime time,
+                                                                                 ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStatusAndStartIsAfterOrderByStartDesc(long bookerId, Status status, LocalDateTime time);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(long bookerId, Status status, LocalDateTime time,
+                                                                                  ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, Status status);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(long bookerId, Status status, LocalDateTime time,
+                                                                                   ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByItemIdAndBookerId(long itemId, long bookerId);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStatusOrderByStartDescIdDesc(long bookerId, Status status,
+                                                                    ScrollPosition position, Limit limit);
 
-    // Поиск бронирований на пересечение дат
-    @Query("select b from Booking b " +
-            "where ?1 = b.item.id and 'APPROVED' = b.status and ?2 <= b.end AND ?3 >= b.start")
-    List<Booking> findAllByIntersectingStartAndEnd(long itemId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+    // Потоковая выгрузка всей истории, строки читаются порциями по fetch size
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Booking> streamAllByBookerIdOrderByStartDescIdDesc(long bookerId);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Booking> streamAllByItemOwnerIdOrderByStartDescIdDesc(long ownerId);
+
+    @Query("select b.id from Booking b where b.status = ?1 and b.start < ?2 order by b.start, b.id")
+    List<Long> findIdsByStatusAndStartBefore(Status status, LocalDateTime now, Limit limit);
+
+    // Статус проверяется повторно, чтобы не перезаписать решение, принятое после выборки идентификаторов.
+    // Версия увеличивается, чтобы решение, прочитавшее строку до обновления, не перезаписало новый статус
+    @Modifying
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id in ?1 and b.status = ?2")
+    int updateStatusByIdInAndStatus(Collection<Long> ids, Status currentStatus, Status newStatus);
+
+    // Решение из пакета применяется, только если строка не менялась с момента выборки
+    @Modifying
+    @Query("update Booking b set b.status = ?4, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.status = ?2 and b.version = ?3")
+    int updateStatusByIdAndStatusAndVersion(long id, Status currentStatus, long version, Status newStatus);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    // Предмет нужен до чтения бронирования, чтобы читать его статус уже под блокировкой предмета
+    @Query("select b.item.id from Booking b where b.id = ?1")
+    Optional<Long> findItemIdById(long id);
+
+    @Query("select distinct b.item.id from Booking b where b.id in ?1")
+    List<Long> findItemIdsByIdIn(Collection<Long> ids);
+
+    // Обслуживается индексом ix_bookings_booker_item_end
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(long bookerId, long itemId, Status status, LocalDateTime end);
+
+    // Количество бронирований по каждому State одним проходом, условия совпадают с выборками списков
+    @Query("select new ru.practicum.shareit.booking.dto.BookingCountsDto(count(b), " +
+            STATE_COUNTS + ") " +
+            "from Booking b where b.booker.id = ?1")
+    BookingCountsDto countByBookerIdGroupByState(long bookerId, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingCountsDto(count(b), " +
+            STATE_COUNTS + ") " +
+            "from Booking b where b.item.owner.id = ?1")
+    BookingCountsDto countByItemOwnerIdGroupByState(long ownerId, LocalDateTime now);
+
+    // Подтверждённые интервалы предмета в порядке начала, для построения BookingIntervalIndex
+    @Query("select new ru.practicum.shareit.booking.dto.BookingInterval(b.start, b.end) from Booking b " +
+            "where ?1 = b.item.id and 'APPROVED' = b.status order by b.start")
+    List<BookingInterval> findAllApprovedIntervalsByItemId(long itemId);
+
+    // Окончание последнего завершённого и начало ближайшего будущего подтверждённого бронирования
+    // по каждому предмету владельца одним агрегирующим запросом
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingDates(b.item.id, " +
+            "max(case when b.end < ?2 then b.end end), min(case when b.start > ?2 then b.start end)) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 and 'APPROVED' = b.status " +
+            "group by b.item.id")
+    List<ItemBookingDates> findBookingDatesByOwnerId(long ownerId, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingDates(b.item.id, " +
+            "max(case when b.end < ?2 then b.end end), min(case when b.start > ?2 then b.start end)) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and 'APPROVED' = b.status " +
+            "group by b.item.id")
+    Optional<ItemBookingDates> findBookingDatesByItemId(long itemId, LocalDateTime now);
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.cache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Ограниченный по размеру кэш поверх ConcurrentHashMap. Чтение не берёт блокировок: запись лишь отмечает
+// время последнего обращения. При переполнении один поток вытесняет давно не читавшиеся записи сразу
+// с запасом, чтобы полный проход по таблице случался не на каждой вставке
+public class BoundedCache<K, V> {
+    private static final int GENERATION_STRIPES = 256;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxSize;
+    private final int evictTo;
+    private final long ttlNanos;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    // Без ttl записи живут, пока их не вытеснят или не сбросят
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.evictTo = maxSize - maxSize / 10;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            return null;
+        }
+        entry.accessed = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    // Загрузка идёт вне блокировок таблицы. Если ключ сбросили или изменили, пока шла загрузка,
+    // опубликованное значение снимается: оно могло быть прочитано до зафиксированного изменения
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(key);
+        V loaded = loader.apply(key);
+        V existing = putIfAbsent(key, loaded, generation);
+        return existing != null ? existing : loaded;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime(), clock.incrementAndGet()));
+        evictIfFull();
+    }
+
+    // Просроченная запись считается отсутствующей
+    public V putIfAbsent(K key, V value) {
+        Entry<V> created = new Entry<>(value, System.nanoTime(), clock.incrementAndGet());
+        Entry<V> result = entries.compute(key, (k, current) ->
+                current == null || isExpired(current) ? created : current);
+        if (result != created) {
+            return result.value;
+        }
+        evictIfFull();
+        return null;
+    }
+
+    // Значение, прочитанное после снимка generation(key), публикуется, только если ключ с тех пор
+    // не сбрасывали и не изменяли
+    public V putIfAbsent(K key, V value, long generation) {
+        V existing = putIfAbsent(key, value);
+        if (existing == null && generation(key) != generation) {
+            remove(key, value);
+        }
+        return existing;
+    }
+
+    // Изменение существующей записи на месте, время её загрузки сохраняется
+    public void update(K key, UnaryOperator<V> updater) {
+        bumpGeneration(key);
+        entries.computeIfPresent(key, (k, current) ->
+                new Entry<>(updater.apply(current.value), current.loadedAt, current.accessed));
+    }
+
+    public void invalidate(K key) {
+        bumpGeneration(key);
+        entries.remove(key);
+    }
+
+    public void remove(K key, V value) {
+        entries.computeIfPresent(key, (k, current) -> current.value == value ? null : current);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long generation(K key) {
+        return generations.get(stripe(key));
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return System.nanoTime() - entry.loadedAt > ttlNanos;
+    }
+
+    private void bumpGeneration(K key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void evictIfFull() {
+        // Вставки, пропустившие вытеснение из-за занятой блокировки, учитываются повторной проверкой размера
+        while (entries.size() > maxSize && evictionLock.tryLock()) {
+            try {
+                evictEldest(entries.size() - evictTo);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void evictEldest(int excess) {
+        if (excess <= 0) {
+            return;
+        }
+        // Куча из excess самых давних обращений, на вершине самое свежее из них. Время обращения
+        // запоминается при обходе, чтобы параллельные чтения не нарушали порядок кучи
+        PriorityQueue<Candidate<K, V>> eldest = new PriorityQueue<>(excess,
+                Comparator.comparingLong(Candidate<K, V>::accessed).reversed());
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            eldest.add(new Candidate<>(entry.getKey(), entry.getValue(), entry.getValue().accessed));
+            if (eldest.size() > excess) {
+                eldest.poll();
+            }
+        }
+        for (Candidate<K, V> candidate : eldest) {
+            if (entries.remove(candidate.key(), candidate.entry())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Candidate<K, V>(K key, Entry<V> entry, long accessed) {
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+        private volatile long accessed;
+
+        private Entry(V value, long loadedAt, long accessed) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.accessed = accessed;
+        }
+    }
+}
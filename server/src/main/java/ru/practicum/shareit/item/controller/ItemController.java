@@ -1,11 +1,26 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.interfaces.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -13,7 +28,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final CacheControl AVAILABILITY_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30));
+    private static final CacheControl SUGGEST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60));
 
     @PostMapping
     public ItemDto addItem(@RequestBody ItemDto itemDto,
@@ -21,6 +40,13 @@ public class ItemController {
         return itemService.addItem(itemDto, userId);
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ItemImporter.TEXT_CSV_VALUE})
+    public ItemImportReport importItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) throws IOException {
+        return itemImporter.importItems(userId, contentType, body);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto patchItem(@RequestBody ItemDto itemDto,
                              @RequestHeader(HEADER_USER_ID) long userId,
@@ -29,8 +55,18 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@PathVariable long itemId) {
-        return itemService.getItem(itemId);
+    public ItemDto getItem(@PathVariable long itemId,
+                           @RequestHeader(value = HEADER_USER_ID, required = false) Long userId) {
+        return itemService.getItem(itemId, userId);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<BookingInterval>> getAvailability(@PathVariable long itemId,
+                                                                 @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok()
+                .cacheControl(AVAILABILITY_CACHE_CONTROL)
+                .body(itemService.getAvailability(itemId, from, to));
     }
 
     @GetMapping
@@ -40,8 +76,33 @@ public class ItemController {
 
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam(required = false) String text,
-                                     @RequestHeader(HEADER_USER_ID) long userId) {
-        return itemService.searchItems(text, userId);
+                                     @RequestHeader(HEADER_USER_ID) long userId,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(defaultValue = "10") int size,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime end) {
+        return itemService.searchItems(text, userId, from, size, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestNames(@RequestParam(required = false) String prefix,
+                                                     @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok()
+                .cacheControl(SUGGEST_CACHE_CONTROL)
+                .body(itemService.suggestNames(prefix, size));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable long itemId,
+                                                        @RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "10") int size) {
+        Window<CommentDto> comments = itemService.getComments(itemId, after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (comments.hasNext()) {
+            CommentDto last = comments.getContent().getLast();
+            response.header(HEADER_NEXT_CURSOR, KeysetCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(comments.getContent());
     }
 
     @PostMapping("/{itemId}/comment")
@@ -18,7 +18,10 @@ public class ItemDto {
     private String description;
     private Boolean available;
     private Long requestId;
+    private Integer commentCount;
+    private LocalDateTime lastCommentAt;
     private LocalDateTime lastBooking;
     private LocalDateTime nextBooking;
     private List<CommentDto> comments;
+    private String commentsCursor;
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemImportError(long line, String error) {
+}
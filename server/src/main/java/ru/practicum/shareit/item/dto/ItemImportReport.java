@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.List;
+
+// В errors попадают только первые ошибки, failed считает все отклонённые строки
+public record ItemImportReport(int imported, int failed, List<ItemImportError> errors) {
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemImportRow(String name, String description, Boolean available, Long requestId) {
+}
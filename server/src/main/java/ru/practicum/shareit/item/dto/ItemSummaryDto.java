@@ -0,0 +1,5 @@
+package ru.practicum.shareit.item.dto;
+
+// Краткое описание вещи-ответа на запрос; requestId нужен, чтобы разложить ответы по запросам страницы
+public record ItemSummaryDto(Long id, String name, Long ownerId, Boolean available, Long requestId) {
+}
@@ -12,6 +12,8 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .commentCount(item.getCommentCount())
+                .lastCommentAt(item.getLastCommentAt())
                 .build();
     }
 
@@ -7,6 +7,8 @@ import lombok.ToString;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @ToString
@@ -22,11 +24,16 @@ public class Item {
     private String description;
     @Column(name = "available", nullable = false)
     private Boolean available;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @ToString.Exclude
     private User owner;
     @ManyToOne
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+    // Счётчики ведутся только запросом ItemStorage.incrementCommentStats, сохранение предмета их не перезаписывает
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    private int commentCount;
+    @Column(name = "last_comment_at", insertable = false, updatable = false)
+    private LocalDateTime lastCommentAt;
 }
\ No newline at end of file
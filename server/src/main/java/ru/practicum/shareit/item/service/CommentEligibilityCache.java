@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+
+// Пары (автор, вещь), для которых уже найдено завершённое подтверждённое бронирование.
+// Подтверждённое бронирование не меняет статус, поэтому право оставить отзыв не пропадает и записи не сбрасываются
+@Component
+public class CommentEligibilityCache {
+    private final BoundedCache<Key, Boolean> eligible;
+
+    public CommentEligibilityCache(@Value("${shareit.item.comment-eligibility.max-size}") int maxSize) {
+        this.eligible = new BoundedCache<>(maxSize);
+    }
+
+    public boolean isEligible(long authorId, long itemId) {
+        return eligible.get(new Key(authorId, itemId)) != null;
+    }
+
+    // Запоминается только после фиксации, чтобы не закэшировать бронирование из откатившейся транзакции
+    public void markEligible(long authorId, long itemId) {
+        TransactionCallbacks.afterCommit(() -> eligible.put(new Key(authorId, itemId), Boolean.TRUE));
+    }
+
+    private record Key(long authorId, long itemId) {
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.function.LongFunction;
+
+// Кэш собранных карточек вещей без дат бронирований: они зависят от текущего времени и того, кто спрашивает.
+// Ограничен по размеру (вытесняются давно не читавшиеся) и по времени жизни записи
+@Component
+public class ItemCache {
+    private final BoundedCache<Long, CachedItem> items;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ItemCache(@Value("${shareit.item.cache.max-size}") int maxSize,
+                     @Value("${shareit.item.cache.ttl}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.items = new BoundedCache<>(maxSize, ttl);
+        this.hits = Counter.builder("shareit.item.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("shareit.item.cache.requests").tag("result", "miss").register(meterRegistry);
+        // Вытеснения по размеру и по времени жизни
+        FunctionCounter.builder("shareit.item.cache.evictions", items, BoundedCache::evictions).register(meterRegistry);
+        Gauge.builder("shareit.item.cache.size", items, BoundedCache::size).register(meterRegistry);
+    }
+
+    // Загрузка выполняется вне блокировки, поэтому при промахе одну вещь могут загрузить параллельно несколько потоков.
+    // Карточка, сброшенная во время загрузки, в кэше не остаётся
+    public CachedItem get(long itemId, LongFunction<CachedItem> loader) {
+        CachedItem cached = items.get(itemId);
+        if (cached != null) {
+            hits.increment();
+            return cached.copy();
+        }
+        misses.increment();
+        return items.get(itemId, id -> load(id, loader)).copy();
+    }
+
+    // Сбрасывается сразу и ещё раз после фиксации, чтобы не осталась версия, прочитанная до фиксации
+    public void invalidate(long itemId) {
+        items.invalidate(itemId);
+        TransactionCallbacks.afterCommit(() -> items.invalidate(itemId));
+    }
+
+    // Прочитанное внутри транзакции может включать её незафиксированные изменения
+    private CachedItem load(long itemId, LongFunction<CachedItem> loader) {
+        CachedItem loaded = loader.apply(itemId);
+        TransactionCallbacks.onRollback(() -> items.remove(itemId, loaded));
+        return loaded;
+    }
+
+    public record CachedItem(ItemDto item, long ownerId) {
+        private CachedItem copy() {
+            return new CachedItem(item.toBuilder().build(), ownerId);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.dto.ItemImportRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearch;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Массовая загрузка вещей из NDJSON или CSV. Тело читается построчно, корректные строки вставляются
+// JDBC-пакетами, каждый пакет в своей транзакции, так что в памяти держится не больше одного пакета
+@Component
+public class ItemImporter {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    private static final String INSERT_SQL =
+            "INSERT INTO items (name, description, available, user_id, request_id) VALUES (?, ?, ?, ?, ?)";
+    private final UserStorage userStorage;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemSearch itemSearch;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ItemImporter(UserStorage userStorage,
+                        UserExistenceCache userExistenceCache,
+                        ItemRequestStorage itemRequestStorage,
+                        ItemSearch itemSearch,
+                        ItemRequestMatcher itemRequestMatcher,
+                        JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${shareit.item.import.batch-size}") int batchSize) {
+        this.userStorage = userStorage;
+        this.userExistenceCache = userExistenceCache;
+        this.itemRequestStorage = itemRequestStorage;
+        this.itemSearch = itemSearch;
+        this.itemRequestMatcher = itemRequestMatcher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ItemImportReport importItems(long userId, MediaType contentType, InputStream body) throws IOException {
+        userExistenceCache.validateUser(userId);
+        boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Report report = new Report();
+        Map<String, Integer> columns = csv ? parseCsvHeader(reader.readLine()) : null;
+        long line = csv ? 1 : 0;
+        List<Row> batch = new ArrayList<>(batchSize);
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            ItemImportRow row;
+            try {
+                row = csv ? parseCsvRow(text, columns) : objectMapper.readValue(text, ItemImportRow.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                report.reject(line, "Некорректная строка");
+                continue;
+            }
+            String error = validate(row);
+            if (error != null) {
+                report.reject(line, error);
+                continue;
+            }
+            batch.add(new Row(line, row));
+            if (batch.size() == batchSize) {
+                insertBatch(userId, batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(userId, batch, report);
+        }
+        return report.toReport();
+    }
+
+    private void insertBatch(long userId, List<Row> batch, Report report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> requestIds = itemRequestStorage.findExistingIds(batch.stream()
+                    .map(row -> row.item().requestId())
+                    .filter(Objects::nonNull)
+                    .toList());
+            List<Row> accepted = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                if (row.item().requestId() != null && !requestIds.contains(row.item().requestId())) {
+                    report.reject(row.line(), "Запрос не найден");
+                } else {
+                    accepted.add(row);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ItemImportRow item = accepted.get(i).item();
+                            ps.setString(1, item.name());
+                            ps.setString(2, item.description());
+                            ps.setBoolean(3, item.available());
+                            ps.setLong(4, userId);
+                            if (item.requestId() != null) {
+                                ps.setLong(5, item.requestId());
+                            } else {
+                                ps.setNull(5, Types.BIGINT);
+                            }
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return accepted.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> keyList = keys.getKeyList();
+            User owner = userStorage.getReferenceById(userId);
+            List<Item> items = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                Item item = toItem((Number) keyList.get(i).values().iterator().next(), accepted.get(i).item(), owner);
+                itemSearch.index(item);
+                items.add(item);
+            }
+            itemRequestMatcher.suggest(items);
+            report.imported += accepted.size();
+        });
+    }
+
+    // Те же ограничения, что у ItemDto шлюза, плюс размеры столбцов таблицы items
+    private static String validate(ItemImportRow row) {
+        if (row == null) {
+            return "Некорректная строка";
+        }
+        if (row.name() == null || row.name().isBlank()) {
+            return "Не указано название";
+        }
+        if (row.description() == null || row.description().isBlank()) {
+            return "Не указано описание";
+        }
+        if (row.available() == null) {
+            return "Не указана доступность";
+        }
+        if (row.name().length() > MAX_NAME_LENGTH) {
+            return "Название длиннее " + MAX_NAME_LENGTH + " символов";
+        }
+        if (row.description().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Описание длиннее " + MAX_DESCRIPTION_LENGTH + " символов";
+        }
+        return null;
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String header) {
+        if (header == null) {
+            throw new ValidationException("Отсутствует заголовок CSV");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "description", "available"))) {
+            throw new ValidationException("В заголовке CSV должны быть столбцы name, description и available");
+        }
+        return columns;
+    }
+
+    private static ItemImportRow parseCsvRow(String text, Map<String, Integer> columns) {
+        List<String> fields = parseCsvLine(text);
+        String available = field(fields, columns.get("available"));
+        String requestId = field(fields, columns.get("requestid"));
+        return new ItemImportRow(field(fields, columns.get("name")),
+                field(fields, columns.get("description")),
+                available == null ? null : parseBoolean(available),
+                requestId == null ? null : Long.valueOf(requestId.trim()));
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException(value);
+        };
+    }
+
+    // Поля разделяются запятыми, поле в двойных кавычках может содержать запятые и удвоенные кавычки.
+    // Переводы строк внутри поля не поддерживаются: одна запись занимает одну строку
+    static List<String> parseCsvLine(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private Item toItem(Number id, ItemImportRow row, User owner) {
+        Item item = new Item();
+        item.setId(id.longValue());
+        item.setName(row.name());
+        item.setDescription(row.description());
+        item.setAvailable(row.available());
+        item.setOwner(owner);
+        if (row.requestId() != null) {
+            item.setRequest(itemRequestStorage.getReferenceById(row.requestId()));
+        }
+        return item;
+    }
+
+    private record Row(long line, ItemImportRow item) {
+    }
+
+    private static class Report {
+        private final List<ItemImportError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        private void reject(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ItemImportError(line, error));
+            }
+        }
+
+        private ItemImportReport toReport() {
+            return new ItemImportReport(imported, failed, errors);
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
@@ -16,46 +22,64 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.interfaces.ItemService;
 import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemSearch;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+    private static final int SEARCH_CHUNK_SIZE = 100;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
     private final ItemRequestStorage itemRequestStorage;
     private final BookingStorage bookingStorage;
     private final CommentStorage commentStorage;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearch itemSearch;
+    private final ItemCache itemCache;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final UserExistenceCache userExistenceCache;
+    private final EntityManager entityManager;
 
     @Transactional
     @Override
     public ItemDto addItem(ItemDto itemDto, long userId) {
-        User user = userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Item item = ItemMapper.toItem(itemDto, user);
+        userExistenceCache.validateUser(userId);
+        Item item = ItemMapper.toItem(itemDto, userStorage.getReferenceById(userId));
         if (itemDto.getRequestId() != null) {
             ItemRequest itemRequest = itemRequestStorage.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new NotFoundException("Запрос не найден"));
             item.setRequest(itemRequest);
         }
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        Item savedItem = itemStorage.save(item);
+        itemSearch.index(savedItem);
+        itemRequestMatcher.suggest(List.of(savedItem));
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Transactional
     @Override
     public ItemDto patchItem(ItemDto itemDto, long userId, long itemId) {
-        User user = userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceCache.validateUser(userId);
         Item item = itemStorage.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Предмет не найден"));
         if (item.getOwner().getId() != userId) {
@@ -64,29 +88,34 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getName() != null) item.setName(itemDto.getName());
         if (itemDto.getDescription() != null) item.setDescription(itemDto.getDescription());
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        Item savedItem = itemStorage.save(item);
+        itemSearch.index(savedItem);
+        itemCache.invalidate(itemId);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
-    public ItemDto getItem(long itemId) {
-        Item item = itemStorage.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Предмет не найден"));
-        ItemDto itemDto = ItemMapper.toItemDto(item);
-        itemDto.setComments(commentStorage.findAllByItemId(itemId).stream()
-                .map(CommentMapper::toCommentDto)
-                .toList());
+    public ItemDto getItem(long itemId, Long userId) {
+        ItemCache.CachedItem cached = itemCache.get(itemId, this::loadItem);
+        ItemDto itemDto = cached.item();
+        // Даты бронирований видит только владелец
+        if (userId != null && cached.ownerId() == userId) {
+            bookingStorage.findBookingDatesByItemId(itemId, LocalDateTime.now())
+                    .ifPresent(dates -> setBookingDates(itemDto, dates));
+        }
         return itemDto;
     }
 
     @Override
     public List<ItemDto> getAllItems(long userId) {
-        userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceCache.validateUser(userId);
         List<Item> items = itemStorage.findAllByOwnerId(userId);
         Map<Long, List<Comment>> comments = commentStorage.findAllByItemIdIn(items.stream()
                         .map(Item::getId)
                         .toList()).stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, ItemBookingDates> bookingDates = bookingStorage.findBookingDatesByOwnerId(userId, LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(ItemBookingDates::itemId, Function.identity()));
         List<ItemDto> itemDtos = items.stream()
                 .map(ItemMapper::toItemDto)
                 .toList();
@@ -94,40 +123,148 @@ public class ItemServiceImpl implements ItemService {
             item.setComments(comments.getOrDefault(item.getId(), List.of()).stream()
                     .map(CommentMapper::toCommentDto)
                     .toList());
+            ItemBookingDates dates = bookingDates.get(item.getId());
+            if (dates != null) {
+                setBookingDates(item, dates);
+            }
         }
-        return items.stream()
-                .map(ItemMapper::toItemDto)
-                .toList();
+        return itemDtos;
     }
 
     @Override
-    public List<ItemDto> searchItems(String text, long userId) {
-        User user = userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<ItemDto> searchItems(String text, long userId, int from, int size, LocalDateTime start, LocalDateTime end) {
+        userExistenceCache.validateUser(userId);
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Некорректные параметры страницы");
+        }
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Нужно указать и начало, и окончание периода");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания");
+        }
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        List<Item> items = itemStorage.findAllByNameLikeOrDescriptionLike(text);
-        return items.stream()
+        List<Long> ids = start == null ? itemSearch.search(text, from, size) : searchFree(text, from, size, start, end);
+        Map<Long, Item> items = itemStorage.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .toList();
     }
 
+    // Совпадения читаются в порядке релевантности порциями растущего размера, занятые на период вещи
+    // отсеиваются одним запросом на порцию, пока не наберётся from + size свободных
+    private List<Long> searchFree(String text, int from, int size, LocalDateTime start, LocalDateTime end) {
+        int needed = from + size;
+        List<Long> free = new ArrayList<>(needed);
+        int offset = 0;
+        int chunk = Math.max(needed, SEARCH_CHUNK_SIZE);
+        while (free.size() < needed) {
+            List<Long> candidates = itemSearch.search(text, offset, chunk);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Set<Long> freeIds = itemStorage.findIdsWithoutApprovedBookingsBetween(candidates, start, end);
+            candidates.stream()
+                    .filter(freeIds::contains)
+                    .forEach(free::add);
+            if (candidates.size() < chunk) {
+                break;
+            }
+            offset += chunk;
+            chunk *= 2;
+        }
+        return free.size() <= from ? List.of() : free.subList(from, Math.min(needed, free.size()));
+    }
+
+    // Подсказки строятся только по индексу, без обращения к базе
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Некорректное количество подсказок");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return itemSearch.suggest(prefix, size);
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(long authorId, long itemId, String text) {
-        User author = userStorage.findById(authorId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceCache.validateUser(authorId);
+        User author = userStorage.getReferenceById(authorId);
         Item item = itemStorage.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Предмет не найден"));
-        List<Booking> bookings = bookingStorage.findAllByItemIdAndBookerId(itemId, authorId);
-        for (Booking booking : bookings) {
-            if (booking.getStatus() == Status.APPROVED && booking.getEnd().isBefore(LocalDateTime.now())) {
-                Comment comment = CommentMapper.toComment(text.trim(), author, item, LocalDateTime.now());
-                Comment createdComment = commentStorage.save(comment);
-                return CommentMapper.toCommentDto(createdComment);
+        LocalDateTime now = LocalDateTime.now();
+        if (!commentEligibilityCache.isEligible(authorId, itemId)) {
+            if (!bookingStorage.existsByBookerIdAndItemIdAndStatusAndEndBefore(authorId, itemId, Status.APPROVED, now)) {
+                throw new ValidationException("Невозможно оставить комментарий");
             }
+            commentEligibilityCache.markEligible(authorId, itemId);
         }
-        throw new ValidationException("Невозможно оставить комментарий");
+        Comment comment = CommentMapper.toComment(text.trim(), author, item, now);
+        Comment createdComment = commentStorage.save(comment);
+        itemStorage.incrementCommentStats(itemId, createdComment.getCreated());
+        // Счётчики обновлены в обход сущности: устаревшая вещь отсоединяется без лишнего запроса
+        entityManager.detach(item);
+        itemCache.invalidate(itemId);
+        return CommentMapper.toCommentDto(createdComment);
+    }
+
+    @Override
+    public Window<CommentDto> getComments(long itemId, String after, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Некорректный размер страницы");
+        }
+        KeysetCursor cursor = after == null || after.isBlank() ? null : KeysetCursor.decode(after);
+        if (!itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Предмет не найден");
+        }
+        return findComments(itemId, cursor, size);
+    }
+
+    @Override
+    public List<BookingInterval> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания");
+        }
+        if (!itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Предмет не найден");
+        }
+        return bookingIntervalIndex.findFreeIntervals(itemId, from, to);
+    }
+
+    private ItemCache.CachedItem loadItem(long itemId) {
+        Item item = itemStorage.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Предмет не найден"));
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        // В карточке только самые новые отзывы, остальные читаются постранично по курсору
+        Window<CommentDto> comments = findComments(itemId, null, COMMENTS_PREVIEW_SIZE);
+        itemDto.setComments(comments.getContent());
+        if (comments.hasNext()) {
+            CommentDto last = comments.getContent().getLast();
+            itemDto.setCommentsCursor(KeysetCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return new ItemCache.CachedItem(itemDto, item.getOwner().getId());
+    }
+
+    // Читается на одну запись больше страницы, чтобы узнать, есть ли следующая
+    private Window<CommentDto> findComments(long itemId, KeysetCursor after, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<CommentDto> comments = after == null
+                ? commentStorage.findNewestByItemId(itemId, limit)
+                : commentStorage.findNewestByItemIdBefore(itemId, after.time(), after.id(), limit);
+        boolean hasNext = comments.size() > size;
+        return Window.from(hasNext ? comments.subList(0, size) : comments, ScrollPosition::offset, hasNext);
+    }
+
+    private static void setBookingDates(ItemDto itemDto, ItemBookingDates dates) {
+        itemDto.setLastBooking(dates.lastBooking());
+        itemDto.setNextBooking(dates.nextBooking());
     }
-}
\ No newline at end of file
+}
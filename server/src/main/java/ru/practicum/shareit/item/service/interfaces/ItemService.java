@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item.service.interfaces;
 
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -12,11 +15,17 @@ public interface ItemService {
 
     ItemDto patchItem(ItemDto itemDto, long userId, long itemId);
 
-    ItemDto getItem(long itemId);
+    ItemDto getItem(long itemId, Long userId);
 
     List<ItemDto> getAllItems(long userId);
 
-    List<ItemDto> searchItems(String text, long userId);
+    List<ItemDto> searchItems(String text, long userId, int from, int size, LocalDateTime start, LocalDateTime end);
+
+    List<String> suggestNames(String prefix, int size);
+
+    Window<CommentDto> getComments(long itemId, String after, int size);
 
     CommentDto addComment(long userId, long itemId, String text);
+
+    List<BookingInterval> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -1,14 +1,29 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface CommentStorage extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
-
     List<Comment> findAllByItemIdIn(List<Long> itemIds);
+
+    // Проекции читают только автора: вещь известна по условию и заново не загружается
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.item.id, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.item.id = ?1 " +
+            "order by c.created desc, c.id desc")
+    List<CommentDto> findNewestByItemId(long itemId, Limit limit);
+
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.item.id, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            "order by c.created desc, c.id desc")
+    List<CommentDto> findNewestByItemIdBefore(long itemId, LocalDateTime created, long id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Поиск средствами базы: узлы сервера не держат собственный индекс в памяти
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "database")
+public class DatabaseItemSearch implements ItemSearch {
+    // Сколько названий просматривается, чтобы собрать подсказки
+    private static final int SUGGEST_SCAN_LIMIT = 1000;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ItemStorage itemStorage;
+
+    // Прокрутка для строковых запросов не поддерживается, поэтому начало страницы отбрасывается здесь
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        String pattern = "%" + escapeLike(ItemSearchIndex.normalize(text.trim())) + "%";
+        List<Long> ids = itemStorage.findAvailableIdsByText(pattern, Limit.of(Math.addExact(from, size)));
+        return ids.subList(Math.min(from, ids.size()), ids.size());
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        // Слова нормализуются так же, как в индексе, поэтому ё сравнивается как е
+        String[] tokens = WORD_SEPARATOR.split(ItemSearchIndex.normalize(prefix.trim()));
+        String last = tokens.length == 0 ? "" : tokens[tokens.length - 1];
+        if (last.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (String name : itemStorage.findNamesByWordPrefix(escapeLike(last), Limit.of(SUGGEST_SCAN_LIMIT))) {
+            for (String token : ItemSearchIndex.tokenize(name)) {
+                if (token.startsWith(last)) {
+                    counts.merge(token, 1, Integer::sum);
+                }
+            }
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Символы шаблона like во вводе пользователя ищутся буквально
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    // Данные уже в базе, обновлять нечего
+    @Override
+    public void index(Item item) {
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.storage;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearch {
+    List<Long> search(String text, int from, int size);
+
+    List<String> suggest(String prefix, int size);
+
+    void index(Item item);
+}
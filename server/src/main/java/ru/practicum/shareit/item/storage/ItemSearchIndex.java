@@ -0,0 +1,220 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+import ru.practicum.shareit.item.dto.ItemSearchDocument;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Инвертированный индекс по словам названия и описания вещей.
+// Слово запроса совпадает со всеми словами, которые с него начинаются, поэтому словари отсортированы
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex implements ItemSearch, SmartInitializingSingleton {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Сначала более релевантные, при равенстве — более ранние вещи
+    private static final Comparator<Map.Entry<Long, Integer>> BY_RELEVANCE =
+            Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+    private static final Comparator<Map.Entry<String, Integer>> BY_POPULARITY =
+            Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final ItemStorage itemStorage;
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<Long>> nameTerms = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Set<Long>> descriptionTerms = new ConcurrentSkipListMap<>();
+
+    public ItemSearchIndex(ItemStorage itemStorage) {
+        this.itemStorage = itemStorage;
+    }
+
+    // Индекс строится при создании бинов, до запуска веб-сервера: поиск не отвечает пустым результатом,
+    // пока индекс не готов, и нет параллельных изменений, которые построение могло бы затереть
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        try (Stream<ItemSearchDocument> documents = itemStorage.streamAllSearchDocuments()) {
+            documents.forEach(document -> put(toIndexedItem(document.id(), document.name(),
+                    document.description(), document.available())));
+        }
+    }
+
+    // Изменение видно сразу, а при откате транзакции индекс возвращается к прежнему состоянию вещи
+    @Override
+    public void index(Item item) {
+        IndexedItem indexed = toIndexedItem(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+        IndexedItem previous = put(indexed);
+        TransactionCallbacks.onRollback(() -> restore(indexed, previous));
+    }
+
+    // Идентификаторы доступных вещей, в названии или описании которых есть все слова запроса,
+    // по убыванию релевантности. Совпадение в названии весит больше совпадения в описании.
+    // Для страницы достаточно from + size лучших вещей, поэтому полный набор совпадений не сортируется
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        Map<Long, Integer> scores = null;
+        for (String token : tokenize(text)) {
+            Set<Long> nameMatches = collectMatches(nameTerms, token);
+            Set<Long> descriptionMatches = collectMatches(descriptionTerms, token);
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            nameMatches.forEach(id -> tokenScores.merge(id, NAME_WEIGHT, Integer::sum));
+            descriptionMatches.forEach(id -> tokenScores.merge(id, DESCRIPTION_WEIGHT, Integer::sum));
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        if (scores == null) {
+            return List.of();
+        }
+        int limit = (int) Math.min((long) from + size, scores.size());
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(limit, BY_RELEVANCE.reversed());
+        for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+            if (!isAvailable(score.getKey())) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(score);
+            } else if (BY_RELEVANCE.compare(score, top.peek()) < 0) {
+                top.poll();
+                top.add(score);
+            }
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(BY_RELEVANCE);
+        return ranked.stream()
+                .skip(from)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Слова названий, начинающиеся с последнего слова префикса, — сначала встречающиеся у большего числа вещей
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        String[] tokens = TOKEN_SEPARATOR.split(normalize(prefix));
+        String last = tokens.length == 0 ? "" : tokens[tokens.length - 1];
+        if (last.isEmpty()) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(BY_POPULARITY.reversed());
+        for (Map.Entry<String, Set<Long>> term : nameTerms.subMap(last, true, last + Character.MAX_VALUE, true).entrySet()) {
+            Map.Entry<String, Integer> suggestion = Map.entry(term.getKey(), term.getValue().size());
+            if (top.size() < size) {
+                top.add(suggestion);
+            } else if (BY_POPULARITY.compare(suggestion, top.peek()) < 0) {
+                top.poll();
+                top.add(suggestion);
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(BY_POPULARITY);
+        return ranked.stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private boolean isAvailable(long itemId) {
+        IndexedItem item = items.get(itemId);
+        return item != null && item.available();
+    }
+
+    private synchronized IndexedItem put(IndexedItem item) {
+        IndexedItem previous = items.put(item.id(), item);
+        if (previous != null) {
+            removeTerms(nameTerms, previous.nameTokens(), previous.id());
+            removeTerms(descriptionTerms, previous.descriptionTokens(), previous.id());
+        }
+        addTerms(nameTerms, item.nameTokens(), item.id());
+        addTerms(descriptionTerms, item.descriptionTokens(), item.id());
+        return previous;
+    }
+
+    private synchronized void restore(IndexedItem indexed, IndexedItem previous) {
+        // Вещь могли переиндексировать другой транзакцией, тогда откат её не касается
+        if (items.get(indexed.id()) != indexed) {
+            return;
+        }
+        if (previous != null) {
+            put(previous);
+            return;
+        }
+        items.remove(indexed.id());
+        removeTerms(nameTerms, indexed.nameTokens(), indexed.id());
+        removeTerms(descriptionTerms, indexed.descriptionTokens(), indexed.id());
+    }
+
+    private static Set<Long> collectMatches(NavigableMap<String, Set<Long>> terms, String prefix) {
+        Set<Long> matches = new HashSet<>();
+        for (Set<Long> ids : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            matches.addAll(ids);
+        }
+        return matches;
+    }
+
+    private static void addTerms(NavigableMap<String, Set<Long>> terms, Set<String> tokens, long itemId) {
+        for (String token : tokens) {
+            terms.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+    }
+
+    private static void removeTerms(NavigableMap<String, Set<Long>> terms, Set<String> tokens, long itemId) {
+        for (String token : tokens) {
+            Set<Long> ids = terms.get(token);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    terms.remove(token, ids);
+                }
+            }
+        }
+    }
+
+    private static IndexedItem toIndexedItem(Long id, String name, String description, Boolean available) {
+        return new IndexedItem(id, tokenize(name), tokenize(description), Boolean.TRUE.equals(available));
+    }
+
+    private record IndexedItem(long id, Set<String> nameTokens, Set<String> descriptionTokens, boolean available) {
+    }
+}
@@ -1,22 +1,75 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemSearchDocument;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemStorage extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(Long userId);
 
-    @Query("select i " +
+    // Строки нормализуются так же, как в ItemSearchIndex; выражения совпадают с триграммными индексами
+    // из schema-search-database-postgresql.sql. Шаблон приходит уже экранированным
+    @Query("select i.id " +
             "from Item i " +
-            "where (LOWER(i.name) like LOWER(CONCAT('%', :text, '%')) " +
-            "or LOWER(i.description) like LOWER(CONCAT('%', :text, '%'))) " +
-            "and i.available = true")
-    List<Item> findAllByNameLikeOrDescriptionLike(String text);
+            "where (REPLACE(LOWER(i.name), 'ё', 'е') like :pattern escape '\\' " +
+            "or REPLACE(LOWER(i.description), 'ё', 'е') like :pattern escape '\\') " +
+            "and i.available = true " +
+            "order by case when REPLACE(LOWER(i.name), 'ё', 'е') like :pattern escape '\\' then 0 else 1 end, i.id")
+    List<Long> findAvailableIdsByText(String pattern, Limit limit);
 
-    List<Item> findAllByRequestId(Long requestId);
+    // Начало слова: начало названия или позиция после пробела либо дефиса
+    @Query("select i.name " +
+            "from Item i " +
+            "where REPLACE(LOWER(i.name), 'ё', 'е') like CONCAT(:prefix, '%') escape '\\' " +
+            "or REPLACE(LOWER(i.name), 'ё', 'е') like CONCAT('% ', :prefix, '%') escape '\\' " +
+            "or REPLACE(LOWER(i.name), 'ё', 'е') like CONCAT('%-', :prefix, '%') escape '\\'")
+    List<String> findNamesByWordPrefix(String prefix, Limit limit);
+
+    // Антисоединение с подтверждёнными бронированиями, пересекающими период; границы включительно, как в BookingIntervalIndex
+    @Query("select i.id " +
+            "from Item i " +
+            "where i.id in :ids " +
+            "and not exists (select b.id from Booking b " +
+            "where b.item = i and 'APPROVED' = b.status and b.start <= :end and b.end >= :start)")
+    Set<Long> findIdsWithoutApprovedBookingsBetween(Collection<Long> ids, LocalDateTime start, LocalDateTime end);
+
+    // Ответы на всю страницу запросов одной выборкой без загрузки сущностей и их связей
+    @Query("select new ru.practicum.shareit.item.dto.ItemSummaryDto(i.id, i.name, i.owner.id, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.request.id in ?1 " +
+            "order by i.id")
+    List<ItemSummaryDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    // Атомарное обновление: параллельные комментарии не теряют приращений. Контекст не очищается,
+    // загруженная вещь обновляется вызывающим кодом
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i " +
+            "set i.commentCount = i.commentCount + 1, " +
+            "i.lastCommentAt = case when i.lastCommentAt is null or i.lastCommentAt < :created " +
+            "then :created else i.lastCommentAt end " +
+            "where i.id = :itemId")
+    int incrementCommentStats(long itemId, LocalDateTime created);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new ru.practicum.shareit.item.dto.ItemSearchDocument(i.id, i.name, i.description, i.available) " +
+            "from Item i")
+    Stream<ItemSearchDocument> streamAllSearchDocuments();
 }
\ No newline at end of file
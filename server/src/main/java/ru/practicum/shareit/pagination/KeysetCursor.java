@@ -0,0 +1,50 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+
+// Курсор keyset-пагинации по паре (время, id), в которой отсортированы ленты бронирований, запросов и отзывов
+public record KeysetCursor(LocalDateTime time, long id) {
+    private static final String SEPARATOR = "|";
+
+    // Точность обрезается до микросекунд, как у колонок времени в базе
+    public static KeysetCursor of(LocalDateTime time, long id) {
+        return new KeysetCursor(time.truncatedTo(ChronoUnit.MICROS), id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
+    }
+
+    // Курсор имеет приоритет, from используется для совместимости со старыми клиентами.
+    // timeProperty — поле сущности, по которому вместе с id отсортирована выборка
+    public static ScrollPosition toScrollPosition(String cursor, int from, String timeProperty) {
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = decode(cursor);
+            return ScrollPosition.forward(Map.of(timeProperty, keysetCursor.time(), "id", keysetCursor.id()));
+        }
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным");
+        }
+        // Позиция смещения указывает на последний уже полученный элемент
+        return from == 0 ? ScrollPosition.keyset() : ScrollPosition.offset(from - 1);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((time + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.interfaces.ItemRequestService;
 
@@ -13,6 +17,7 @@ import java.util.List;
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
 
     @PostMapping
     public ItemRequestDto addItemRequest(@RequestHeader(HEADER_USER_ID) long userId,
@@ -26,8 +31,17 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(@RequestHeader(HEADER_USER_ID) long userId) {
-        return itemRequestService.getAllRequests(userId);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader(HEADER_USER_ID) long userId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size) {
+        Window<ItemRequestDto> requests = itemRequestService.getAllRequests(userId, cursor, from, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (requests.hasNext()) {
+            ItemRequestDto last = requests.getContent().getLast();
+            response.header(HEADER_NEXT_CURSOR, KeysetCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(requests.getContent());
     }
 
     @GetMapping("/{requestId}")
@@ -35,4 +49,10 @@ public class ItemRequestController {
                                          @PathVariable long requestId) {
         return itemRequestService.getRequestById(userId, requestId);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{requestId}/suggested-items")
+    public List<ItemSummaryDto> getSuggestedItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                                  @PathVariable long requestId) {
+        return itemRequestService.getSuggestedItems(userId, requestId);
+    }
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.request.dto;
+
+public record ItemRequestDocument(Long id, Long requestorId, String description) {
+}
@@ -3,7 +3,7 @@ package ru.practicum.shareit.request.dto;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,5 +15,5 @@ public class ItemRequestDto {
     private Long id;
     private String description;
     private LocalDateTime created;
-    private List<Item> items;
+    private List<ItemSummaryDto> items;
 }
\ No newline at end of file
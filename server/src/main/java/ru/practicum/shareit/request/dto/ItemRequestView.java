@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request.dto;
+
+import java.time.LocalDateTime;
+
+// Проекция запроса без автора: ленте чужих запросов он не нужен
+public record ItemRequestView(Long id, String description, LocalDateTime created) {
+}
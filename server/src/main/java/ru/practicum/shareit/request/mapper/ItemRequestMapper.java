@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.mapper;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -13,6 +14,14 @@ public class ItemRequestMapper {
         return itemRequestDto;
     }
 
+    public static ItemRequestDto toItemRequestDto(ItemRequestView itemRequestView) {
+        ItemRequestDto itemRequestDto = new ItemRequestDto();
+        itemRequestDto.setId(itemRequestView.id());
+        itemRequestDto.setDescription(itemRequestView.description());
+        itemRequestDto.setCreated(itemRequestView.created());
+        return itemRequestDto;
+    }
+
     public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User user) {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setId(itemRequestDto.getId());
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.item.model.Item;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "item_request_suggestions")
+public class ItemRequestSuggestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id", nullable = false)
+    @ToString.Exclude
+    private ItemRequest request;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    @ToString.Exclude
+    private Item item;
+    @Column(name = "score", nullable = false)
+    private int score;
+}
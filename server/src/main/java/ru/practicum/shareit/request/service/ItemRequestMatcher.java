@@ -0,0 +1,163 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearchIndex;
+import ru.practicum.shareit.request.dto.ItemRequestDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Инвертированный индекс основ слов из описаний запросов. Подходящие запросы для новой вещи
+// находятся за один проход по спискам запросов для слов её названия и описания и сохраняются
+// в item_request_suggestions, откуда их читает GET /requests/{requestId}/suggested-items
+@Component
+public class ItemRequestMatcher implements SmartInitializingSingleton {
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final String STEM_ENDINGS = "аеиоуыэюяьй";
+    // Слова, с которых начинается почти любой запрос, ничего не говорят о нужной вещи
+    private static final Set<String> STOP_WORDS = Set.of("нужна", "нужен", "нужно", "нужны", "ищу", "для", "или",
+            "что", "кто", "как", "это", "чтобы", "может", "можно", "есть", "очень", "need", "the", "and", "for", "with");
+    // Слово из слишком многих запросов не отличает их друг от друга, а проход по его списку дорог
+    private static final int MAX_POSTING_SIZE = 5000;
+    private static final int MAX_SUGGESTIONS_PER_ITEM = 20;
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final Comparator<Match> BY_SCORE =
+            Comparator.comparingInt(Match::score).reversed().thenComparingLong(Match::requestId);
+    private static final String INSERT_SQL =
+            "INSERT INTO item_request_suggestions (request_id, item_id, score) VALUES (?, ?, ?)";
+
+    private final ItemRequestStorage itemRequestStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Long> requestors = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public ItemRequestMatcher(ItemRequestStorage itemRequestStorage, JdbcTemplate jdbcTemplate) {
+        this.itemRequestStorage = itemRequestStorage;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Как и ItemSearchIndex, индекс строится до запуска веб-сервера, поэтому первые вещи
+    // сопоставляются с полным набором запросов и не конкурируют с построением
+    @Override
+    @Transactional(readOnly = true)
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        try (Stream<ItemRequestDocument> documents = itemRequestStorage.streamAllDocuments()) {
+            documents.forEach(document -> put(document.id(), document.requestorId(), stems(document.description())));
+        }
+    }
+
+    // Запрос виден сразу, а при откате транзакции удаляется из индекса
+    public void index(ItemRequest itemRequest) {
+        long requestId = itemRequest.getId();
+        Set<String> stems = stems(itemRequest.getDescription());
+        put(requestId, itemRequest.getRequestor().getId(), stems);
+        TransactionCallbacks.onRollback(() -> remove(requestId, stems));
+    }
+
+    // Подходящие запросы сохраняются в транзакции, создающей вещи
+    public void suggest(List<Item> items) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Item item : items) {
+            for (Match match : match(item)) {
+                rows.add(new Object[]{match.requestId(), item.getId(), match.score()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    // Лучшие запросы по сумме весов общих слов, кроме запросов владельца вещи и запроса, на который она уже ответ
+    List<Match> match(Item item) {
+        Map<String, Integer> terms = new HashMap<>();
+        stems(item.getName()).forEach(stem -> terms.merge(stem, NAME_WEIGHT, Math::max));
+        stems(item.getDescription()).forEach(stem -> terms.merge(stem, DESCRIPTION_WEIGHT, Math::max));
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            Set<Long> requestIds = postings.get(term.getKey());
+            if (requestIds == null || requestIds.size() > MAX_POSTING_SIZE) {
+                continue;
+            }
+            for (Long requestId : requestIds) {
+                scores.merge(requestId, term.getValue(), Integer::sum);
+            }
+        }
+        Long ownerId = item.getOwner().getId();
+        Long linkedRequestId = item.getRequest() != null ? item.getRequest().getId() : null;
+        PriorityQueue<Match> best = new PriorityQueue<>(BY_SCORE.reversed());
+        for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+            Long requestorId = requestors.get(score.getKey());
+            if (requestorId == null || requestorId.equals(ownerId) || score.getKey().equals(linkedRequestId)) {
+                continue;
+            }
+            best.add(new Match(score.getKey(), score.getValue()));
+            if (best.size() > MAX_SUGGESTIONS_PER_ITEM) {
+                best.poll();
+            }
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(BY_SCORE);
+        return matches;
+    }
+
+    static Set<String> stems(String text) {
+        return ItemSearchIndex.tokenize(text).stream()
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token))
+                .map(ItemRequestMatcher::stem)
+                .collect(Collectors.toSet());
+    }
+
+    // Грубое отсечение окончаний: у «дрель», «дрели» и «дрелью» общая основа «дрел»
+    private static String stem(String token) {
+        int end = token.length();
+        while (end > MIN_STEM_LENGTH && STEM_ENDINGS.indexOf(token.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return token.substring(0, end);
+    }
+
+    private void put(long requestId, long requestorId, Set<String> stems) {
+        requestors.put(requestId, requestorId);
+        for (String stem : stems) {
+            postings.compute(stem, (key, requestIds) -> {
+                Set<Long> updated = requestIds != null ? requestIds : ConcurrentHashMap.newKeySet();
+                updated.add(requestId);
+                return updated;
+            });
+        }
+    }
+
+    private void remove(long requestId, Set<String> stems) {
+        requestors.remove(requestId);
+        for (String stem : stems) {
+            postings.computeIfPresent(stem, (key, requestIds) -> {
+                requestIds.remove(requestId);
+                return requestIds.isEmpty() ? null : requestIds;
+            });
+        }
+    }
+
+    record Match(long requestId, int score) {
+    }
+}
@@ -1,21 +1,28 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.interfaces.ItemRequestService;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.request.storage.ItemRequestSuggestionStorage;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -24,44 +31,72 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestStorage itemRequestStorage;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
+    private final ItemRequestSuggestionStorage itemRequestSuggestionStorage;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final UserExistenceCache userExistenceCache;
 
     @Transactional
     @Override
     public ItemRequestDto addItemRequest(long userId, ItemRequestDto itemRequestDto) {
-        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, validateUser(userId));
+        userExistenceCache.validateUser(userId);
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, userStorage.getReferenceById(userId));
         itemRequest.setCreated(LocalDateTime.now());
-        return ItemRequestMapper.toItemRequestDto(itemRequestStorage.save(itemRequest));
+        ItemRequest savedItemRequest = itemRequestStorage.save(itemRequest);
+        itemRequestMatcher.index(savedItemRequest);
+        return ItemRequestMapper.toItemRequestDto(savedItemRequest);
     }
 
     @Override
     public List<ItemRequestDto> getAllUserRequests(long userId) {
-        validateUser(userId);
-        return itemRequestStorage.findAllByRequestorId(userId).stream()
+        userExistenceCache.validateUser(userId);
+        List<ItemRequestDto> requests = itemRequestStorage.findAllByRequestorId(userId).stream()
                 .map(ItemRequestMapper::toItemRequestDto)
                 .toList();
+        attachItems(requests);
+        return requests;
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequests(long userId) {
-        validateUser(userId);
-        return itemRequestStorage.findAll().stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .toList();
+    public Window<ItemRequestDto> getAllRequests(long userId, String cursor, int from, int size) {
+        userExistenceCache.validateUser(userId);
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+        Window<ItemRequestDto> requests = itemRequestStorage.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId,
+                        KeysetCursor.toScrollPosition(cursor, from, "created"), Limit.of(size))
+                .map(ItemRequestMapper::toItemRequestDto);
+        attachItems(requests.getContent());
+        return requests;
     }
 
     @Override
     public ItemRequestDto getRequestById(long userId, long requestId) {
-        validateUser(userId);
+        userExistenceCache.validateUser(userId);
         ItemRequest itemRequest = itemRequestStorage.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос не найден"));
-        List<Item> items = itemStorage.findAllByRequestId(requestId);
         ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
-        itemRequestDto.setItems(items);
+        itemRequestDto.setItems(itemStorage.findAllByRequestIdIn(List.of(requestId)));
         return itemRequestDto;
     }
 
-    private User validateUser(long userId) {
-        return userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    @Override
+    public List<ItemSummaryDto> getSuggestedItems(long userId, long requestId) {
+        userExistenceCache.validateUser(userId);
+        if (!itemRequestStorage.existsById(requestId)) {
+            throw new NotFoundException("Запрос не найден");
+        }
+        return itemRequestSuggestionStorage.findSuggestedItemsByRequestId(requestId);
+    }
+
+    // Вещи для всех запросов страницы загружаются одним запросом и раскладываются по запросам в памяти
+    private void attachItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ItemSummaryDto>> items = itemStorage.findAllByRequestIdIn(requests.stream()
+                        .map(ItemRequestDto::getId)
+                        .toList()).stream()
+                .collect(Collectors.groupingBy(ItemSummaryDto::requestId));
+        requests.forEach(request -> request.setItems(items.getOrDefault(request.getId(), List.of())));
     }
 }
\ No newline at end of file
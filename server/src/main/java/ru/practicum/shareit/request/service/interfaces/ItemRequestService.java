@@ -1,5 +1,7 @@
 package ru.practicum.shareit.request.service.interfaces;
 
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -9,7 +11,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllUserRequests(long userId);
 
-    List<ItemRequestDto> getAllRequests(long userId);
+    Window<ItemRequestDto> getAllRequests(long userId, String cursor, int from, int size);
 
     ItemRequestDto getRequestById(long userId, long requestId);
+
+    List<ItemSummaryDto> getSuggestedItems(long userId, long requestId);
 }
\ No newline at end of file
@@ -1,12 +1,38 @@
 package ru.practicum.shareit.request.storage;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.dto.ItemRequestDocument;
+import ru.practicum.shareit.request.dto.ItemRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestorId(long userId);
-}
\ No newline at end of file
+
+    // Чужие запросы от новых к старым, обслуживается индексом ix_item_requests_created
+    Window<ItemRequestView> findAllByRequestorIdNotOrderByCreatedDescIdDesc(long userId, ScrollPosition position, Limit limit);
+
+    @Query("select r.id from ItemRequest r where r.id in ?1")
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDocument(r.id, r.requestor.id, r.description) " +
+            "from ItemRequest r")
+    Stream<ItemRequestDocument> streamAllDocuments();
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
+import ru.practicum.shareit.request.model.ItemRequestSuggestion;
+
+import java.util.List;
+
+@Repository
+public interface ItemRequestSuggestionStorage extends JpaRepository<ItemRequestSuggestion, Long> {
+    // Обслуживается индексом ix_item_request_suggestions_request
+    @Query("select new ru.practicum.shareit.item.dto.ItemSummaryDto(i.id, i.name, i.owner.id, i.available, s.request.id) " +
+            "from ItemRequestSuggestion s " +
+            "join s.item i " +
+            "where s.request.id = ?1 " +
+            "order by s.score desc, i.id")
+    List<ItemSummaryDto> findSuggestedItemsByRequestId(long requestId);
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.TransactionCallbacks;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+// Идентификаторы пользователей, существование которых уже проверено. Проверка пользователя из кэша
+// не обращается к базе, а там, где нужен только сам пользователь, сервисы берут ссылку getReferenceById
+@Component
+public class UserExistenceCache {
+    private final UserStorage userStorage;
+    private final BoundedCache<Long, Boolean> existing;
+
+    public UserExistenceCache(UserStorage userStorage,
+                              @Value("${shareit.user.existence-cache.max-size}") int maxSize) {
+        this.userStorage = userStorage;
+        this.existing = new BoundedCache<>(maxSize);
+    }
+
+    public void validateUser(long userId) {
+        if (existing.get(userId) != null) {
+            return;
+        }
+        long generation = generation(userId);
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        markExists(userId, generation);
+    }
+
+    // Снимок берётся до чтения пользователя из базы: удаление после снимка не даст его запомнить
+    public long generation(long userId) {
+        return existing.generation(userId);
+    }
+
+    public void markExists(long userId) {
+        markExists(userId, generation(userId));
+    }
+
+    // Запоминается только после фиксации, чтобы не закэшировать пользователя из откатившейся транзакции
+    public void markExists(long userId, long generation) {
+        TransactionCallbacks.afterCommit(() -> existing.putIfAbsent(userId, Boolean.TRUE, generation));
+    }
+
+    // Поколение ключа сдвигается сразу и ещё раз после фиксации удаления, поэтому проверка,
+    // прочитавшая пользователя до фиксации, не запомнит его и после неё
+    public void evict(long userId) {
+        existing.invalidate(userId);
+        TransactionCallbacks.afterCommit(() -> existing.invalidate(userId));
+    }
+}
@@ -14,11 +14,13 @@ import ru.practicum.shareit.user.storage.UserStorage;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserStorage userStorage;
+    private final UserExistenceCache userExistenceCache;
 
     @Override
     public UserDto addUser(UserDto userDto) {
-        User user = UserMapper.toUser(userDto);
-        return UserMapper.toUserDto(userStorage.save(user));
+        User user = userStorage.save(UserMapper.toUser(userDto));
+        userExistenceCache.markExists(user.getId());
+        return UserMapper.toUserDto(user);
     }
 
     @Override
@@ -37,13 +39,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUser(long userId) {
+        long generation = userExistenceCache.generation(userId);
         User user = userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userExistenceCache.markExists(userId, generation);
         return UserMapper.toUserDto(user);
     }
 
     @Override
     public void deleteUser(long userId) {
         userStorage.deleteById(userId);
+        userExistenceCache.evict(userId);
     }
 }
@@ -0,0 +1,6 @@
+-- Выполняется только при shareit.item.search.mode=database: в режиме index поиск идёт по памяти узла,
+-- и триграммные индексы лишь замедляли бы запись вещей
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_items_name_norm_trgm ON items USING gin (REPLACE(LOWER(name), 'ё', 'е') gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_items_description_norm_trgm ON items USING gin (REPLACE(LOWER(description), 'ё', 'е') gin_trgm_ops);
@@ -9,16 +9,21 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    name        varchar(255)                            NOT NULL,
-    description varchar(2000)                           NOT NULL,
-    available   bool                                    NOT NULL,
-    user_id     BIGINT                                  NOT NULL,
-    request_id  BIGINT,
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name            varchar(255)                            NOT NULL,
+    description     varchar(2000)                           NOT NULL,
+    available       bool                                    NOT NULL,
+    user_id         BIGINT                                  NOT NULL,
+    request_id      BIGINT,
+    comment_count   INTEGER DEFAULT 0                       NOT NULL,
+    last_comment_at TIMESTAMP WITH TIME ZONE,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT owner_id_fk FOREIGN KEY (user_id) REFERENCES users (id)
 );
 
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_comment_at TIMESTAMP WITH TIME ZONE;
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -27,11 +32,14 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                                  NOT NULL,
     user_id    BIGINT                                  NOT NULL,
     status     VARCHAR(255)                            NOT NULL,
+    version    BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT item_id_booking_fk FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT user_id_booking_fk FOREIGN KEY (user_id) REFERENCES users (id)
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -52,4 +60,24 @@ CREATE TABLE IF NOT EXISTS item_requests
     created     TIMESTAMP WITH TIME ZONE                NOT NULL,
     CONSTRAINT pk_item_request PRIMARY KEY (id),
     CONSTRAINT user_id_item_request_fk FOREIGN KEY (user_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_request_suggestions
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    request_id BIGINT                                  NOT NULL,
+    item_id    BIGINT                                  NOT NULL,
+    score      INTEGER                                 NOT NULL,
+    CONSTRAINT pk_item_request_suggestion PRIMARY KEY (id),
+    CONSTRAINT request_id_suggestion_fk FOREIGN KEY (request_id) REFERENCES item_requests (id),
+    CONSTRAINT item_id_suggestion_fk FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (user_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_item_end ON bookings (user_id, item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_status_start ON bookings (status, start_date);
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (user_id);
+CREATE INDEX IF NOT EXISTS ix_item_requests_created ON item_requests (created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_comments_item_created ON comments (item_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_item_request_suggestions_request ON item_request_suggestions (request_id, score DESC, item_id);
@@ -7,10 +7,17 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -19,6 +26,7 @@ import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
@@ -210,6 +218,33 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).patchBooking(eq(bookingId), eq(userId), eq(approved));
     }
 
+    @Test
+    void updateBookingStatusBatchTest() throws Exception {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingDto.getId());
+        decision.setApproved(true);
+        BookingDecisionResultDto result = BookingDecisionResultDto.builder()
+                .bookingId(bookingDto.getId())
+                .status(Status.APPROVED)
+                .build();
+
+        when(bookingService.patchBookings(anyList(), anyLong()))
+                .thenReturn(List.of(result));
+
+        mvc.perform(patch("/bookings/batch")
+                        .content(objectMapper.writeValueAsString(List.of(decision)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bookingId", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].status", is(Status.APPROVED.name())));
+
+        verify(bookingService, times(1)).patchBookings(eq(List.of(decision)), eq(1L));
+    }
+
     @Test
     void getBookingByIdTest() throws Exception {
         when(bookingService.findBookingByOwnerAndBooker(anyLong(), anyLong()))
@@ -229,8 +264,8 @@ public class BookingControllerTest {
     void getAllUsersBookingByStatusTest() throws Exception {
         Long userId = 1L;
 
-        when(bookingService.findBookingsByBookerIdAndState(Mockito.anyLong(), Mockito.any()))
-                .thenReturn(bookingDtoList);
+        when(bookingService.findBookingsByBookerIdAndState(Mockito.anyLong(), Mockito.any(), any(), anyInt(), anyInt()))
+                .thenReturn(Window.from(bookingDtoList, ScrollPosition::offset));
 
         mvc.perform(get("/bookings")
                         .accept(MediaType.APPLICATION_JSON)
@@ -240,15 +275,15 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$", hasSize(bookingDtoList.size())))
                 .andExpect(jsonPath("$[0].id", is(bookingDtoList.getFirst().getId().intValue())));
 
-        verify(bookingService, times(1)).findBookingsByBookerIdAndState(eq(userId), eq(State.ALL));
+        verify(bookingService, times(1)).findBookingsByBookerIdAndState(eq(userId), eq(State.ALL), isNull(), eq(0), eq(10));
     }
 
     @Test
     void getAllBookingForUserItemsByStatusTest() throws Exception {
         Long userId = 1L;
 
-        when(bookingService.findBookingsByOwnerIdAndState(anyLong(), any()))
-                .thenReturn(bookingDtoList);
+        when(bookingService.findBookingsByOwnerIdAndState(anyLong(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Window.from(bookingDtoList, ScrollPosition::offset));
 
         mvc.perform(get("/bookings/owner")
                         .accept(MediaType.APPLICATION_JSON)
@@ -258,7 +293,77 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.size()", is(bookingDtoList.size())))
                 .andExpect(jsonPath("$[0].id", is(bookingDtoList.getFirst().getId().intValue())));
 
-        verify(bookingService, times(1)).findBookingsByOwnerIdAndState(eq(userId), eq(State.ALL));
+        verify(bookingService, times(1)).findBookingsByOwnerIdAndState(eq(userId), eq(State.ALL), isNull(), eq(0), eq(10));
+    }
+
+    @Test
+    void getAllBookingForUserItemsWithNextPageTest() throws Exception {
+        BookingDto last = bookingDtoList.getLast();
+        String cursor = KeysetCursor.of(last.getStart(), last.getId()).encode();
+
+        when(bookingService.findBookingsByOwnerIdAndState(anyLong(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Window.from(bookingDtoList, ScrollPosition::offset, true));
+
+        mvc.perform(get("/bookings/owner")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("cursor", cursor)
+                        .param("size", "10")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", cursor))
+                .andExpect(jsonPath("$.size()", is(bookingDtoList.size())));
+
+        verify(bookingService, times(1)).findBookingsByOwnerIdAndState(eq(1L), eq(State.ALL), eq(cursor), eq(0), eq(10));
+    }
+
+    @Test
+    void getBookingCountsTest() throws Exception {
+        BookingCountsDto counts = new BookingCountsDto(6L, 1L, 1L, 1L, 2L, 1L);
+        when(bookingService.countBookingsByOwnerId(anyLong())).thenReturn(counts);
+        when(bookingService.countBookingsByBookerId(anyLong())).thenReturn(counts);
+
+        mvc.perform(get("/bookings/owner/counts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(6)))
+                .andExpect(jsonPath("$.waiting", is(2)));
+
+        mvc.perform(get("/bookings/counts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected", is(1)));
+
+        verify(bookingService, times(1)).countBookingsByOwnerId(eq(1L));
+        verify(bookingService, times(1)).countBookingsByBookerId(eq(2L));
+    }
+
+    @Test
+    void exportBookingsTest() throws Exception {
+        String line = objectMapper.writeValueAsString(bookingDto) + "\n";
+        StreamingResponseBody body = outputStream -> outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+        when(bookingService.exportBookingsByOwnerId(anyLong())).thenReturn(body);
+        when(bookingService.exportBookingsByBookerId(anyLong())).thenReturn(body);
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line));
+
+        result = mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(content().string(line));
+
+        verify(bookingService, times(1)).exportBookingsByOwnerId(eq(1L));
+        verify(bookingService, times(1)).exportBookingsByBookerId(eq(2L));
     }
 
     private String generateRandomString(int targetStringLength) {
@@ -0,0 +1,319 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.interfaces.BookingService;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Транзакции в этих тестах фиксируются, поэтому данные удаляются после каждого теста
+@SpringBootTest
+class BookingConcurrencyTest {
+    private static final int ITEMS_COUNT = 8;
+    private static final int BOOKINGS_PER_ITEM = 16;
+    private static final int STRESS_ITEMS_PER_THREAD = 16;
+    private static final int STRESS_BOOKINGS_PER_ITEM = 6;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemBookingLocks itemBookingLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Value("${shareit.booking.lock-stripes}")
+    private int lockStripes;
+
+    private User owner;
+    private User booker;
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("concurrency-owner@example.com");
+        owner = userStorage.save(owner);
+
+        booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("concurrency-booker@example.com");
+        booker = userStorage.save(booker);
+
+        items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription("Description " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(itemStorage.save(item));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Удаление в обход сервиса, поэтому закэшированные интервалы сбрасываются вручную
+        items.forEach(item -> bookingIntervalIndex.invalidate(item.getId()));
+        bookingStorage.deleteAll();
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void testConcurrentApprovalsNeverDoubleBook() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (Item item : items) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                Booking booking = new Booking();
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStart(start.plusHours(i % 2));
+                booking.setEnd(start.plusHours(2 + i % 2));
+                booking.setStatus(Status.WAITING);
+                bookingIds.add(bookingStorage.save(booking).getId());
+            }
+        }
+        Collections.shuffle(bookingIds);
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.patchBooking(bookingId, owner.getId(), true);
+                    approved.incrementAndGet();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(ITEMS_COUNT, approved.get());
+        assertEquals(ITEMS_COUNT * (BOOKINGS_PER_ITEM - 1), rejected.get());
+        for (Item item : items) {
+            assertEquals(1, bookingStorage.findAllApprovedIntervalsByItemId(item.getId()).size());
+        }
+    }
+
+    @Test
+    void testConcurrentDecisionsOnSameBookingApplyOnce() throws Exception {
+        Item item = items.getFirst();
+        Long bookingId = bookingService.addBooking(createBookingDto(item), booker.getId()).getId();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Status>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            boolean approve = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    return bookingService.patchBooking(bookingId, owner.getId(), approve).getStatus();
+                } catch (ValidationException e) {
+                    return null;
+                }
+            }));
+        }
+        ready.countDown();
+        List<Status> applied = new ArrayList<>();
+        for (Future<Status> future : futures) {
+            Status status = future.get(30, TimeUnit.SECONDS);
+            if (status != null) {
+                applied.add(status);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, applied.size());
+        assertEquals(applied.getFirst(), bookingStorage.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    // Каждый поток бронирует и подтверждает свои предметы
+    @Test
+    void testParallelWorkersOnDisjointItemsNeverDoubleBook() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        runDisjointWorkers(threads, threads);
+    }
+
+    // Каждое подтверждение после выхода из сервиса ждёт остальных внутри своей транзакции, то есть продолжая
+    // держать блокировку предмета. Барьер проходится, только если все блокировки удерживаются одновременно
+    @Test
+    void testApprovalsOnDisjointItemsHoldLocksConcurrently() throws Exception {
+        int threads = 4;
+        Set<Integer> stripes = new HashSet<>();
+        List<Long> bookingIds = new ArrayList<>();
+        for (Item item : items) {
+            if (bookingIds.size() < threads && stripes.add(Math.floorMod(Long.hashCode(item.getId()), lockStripes))) {
+                bookingIds.add(bookingService.addBooking(createBookingDto(item), booker.getId()).getId());
+            }
+        }
+        assertEquals(threads, bookingIds.size());
+
+        CyclicBarrier allLocked = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Status>> futures = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                Status approved = bookingService.patchBooking(bookingId, owner.getId(), true).getStatus();
+                try {
+                    allLocked.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Подтверждения по разным предметам выполнялись последовательно", e);
+                }
+                return approved;
+            })));
+        }
+        for (Future<Status> future : futures) {
+            assertEquals(Status.APPROVED, future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+
+    // Работа делится на workers частей по предметам, выполняемых в poolSize потоках
+    private void runDisjointWorkers(int poolSize, int workers) throws Exception {
+        List<List<Item>> workerItems = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            List<Item> own = new ArrayList<>();
+            for (int i = 0; i < STRESS_ITEMS_PER_THREAD; i++) {
+                Item item = new Item();
+                item.setName("Stress item " + w + "-" + i);
+                item.setDescription("Description");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                own.add(itemStorage.save(item));
+            }
+            items.addAll(own);
+            workerItems.add(own);
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        AtomicInteger approved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Item> own : workerItems) {
+            futures.add(executor.submit(() -> {
+                for (Item item : own) {
+                    // Все бронирования предмета пересекаются, подтвердиться может только одно
+                    List<Long> bookingIds = new ArrayList<>();
+                    for (int b = 0; b < STRESS_BOOKINGS_PER_ITEM; b++) {
+                        CreateBookingDto createBookingDto = new CreateBookingDto();
+                        createBookingDto.setItemId(item.getId());
+                        createBookingDto.setStart(start.plusHours(b));
+                        createBookingDto.setEnd(start.plusHours(b + STRESS_BOOKINGS_PER_ITEM));
+                        bookingIds.add(bookingService.addBooking(createBookingDto, booker.getId()).getId());
+                    }
+                    for (Long bookingId : bookingIds) {
+                        try {
+                            bookingService.patchBooking(bookingId, owner.getId(), true);
+                            approved.incrementAndGet();
+                        } catch (ValidationException e) {
+                            // Пересекается с уже подтверждённым
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(workers * STRESS_ITEMS_PER_THREAD, approved.get());
+        for (List<Item> own : workerItems) {
+            for (Item item : own) {
+                assertEquals(1, bookingStorage.findAllApprovedIntervalsByItemId(item.getId()).size());
+            }
+        }
+    }
+
+    @Test
+    void testLockedItemDoesNotBlockOtherItems() throws Exception {
+        Item lockedItem = items.getFirst();
+        Item freeItem = items.get(1);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemBookingLocks.lockUntilCompletion(lockedItem.getId());
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        Future<?> otherItem = executor.submit(() -> bookingService.addBooking(createBookingDto(freeItem), booker.getId()));
+        assertNotNull(otherItem.get(10, TimeUnit.SECONDS));
+
+        Future<?> sameItem = executor.submit(() -> bookingService.addBooking(createBookingDto(lockedItem), booker.getId()));
+        assertThrows(TimeoutException.class, () -> sameItem.get(500, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        assertNotNull(sameItem.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    private CreateBookingDto createBookingDto(Item item) {
+        CreateBookingDto createBookingDto = new CreateBookingDto();
+        createBookingDto.setItemId(item.getId());
+        createBookingDto.setStart(LocalDateTime.now().plusDays(1));
+        createBookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        return createBookingDto;
+    }
+}
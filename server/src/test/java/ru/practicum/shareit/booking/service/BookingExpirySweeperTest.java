@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "shareit.booking.expiry.batch-size=2")
+@Transactional
+class BookingExpirySweeperTest {
+    @Autowired
+    private BookingExpirySweeper bookingExpirySweeper;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        owner = userStorage.save(owner);
+
+        booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        booker = userStorage.save(booker);
+
+        item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemStorage.save(item);
+    }
+
+    @Test
+    void testExpireStaleBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            staleIds.add(saveBooking(now.minusHours(i), now.plusDays(1), Status.WAITING).getId());
+        }
+        Long futureId = saveBooking(now.plusDays(1), now.plusDays(2), Status.WAITING).getId();
+        Long approvedId = saveBooking(now.minusDays(2), now.minusDays(1), Status.APPROVED).getId();
+        double expiredBefore = meterRegistry.counter("shareit.bookings.expired").count();
+
+        assertEquals(3, bookingExpirySweeper.expireStaleBookings(now));
+        entityManager.clear();
+
+        for (Long id : staleIds) {
+            assertEquals(Status.EXPIRED, bookingStorage.findById(id).orElseThrow().getStatus());
+        }
+        assertEquals(Status.WAITING, bookingStorage.findById(futureId).orElseThrow().getStatus());
+        assertEquals(Status.APPROVED, bookingStorage.findById(approvedId).orElseThrow().getStatus());
+        assertEquals(3, meterRegistry.counter("shareit.bookings.expired").count() - expiredBefore);
+        assertEquals(0, bookingExpirySweeper.expireStaleBookings(now));
+    }
+
+    @Test
+    void testExpiryWinsOverDecisionReadBeforeIt() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = saveBooking(now.minusHours(1), now.plusDays(1), Status.WAITING);
+        entityManager.flush();
+
+        assertEquals(1, bookingExpirySweeper.expireStaleBookings(now));
+        booking.setStatus(Status.APPROVED);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingStorage.saveAndFlush(booking));
+    }
+
+    @Test
+    void testContinuesAfterPartiallyExpiredBatch() {
+        BookingStorage storage = mock(BookingStorage.class);
+        when(storage.findIdsByStatusAndStartBefore(eq(Status.WAITING), any(), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        // По первому бронированию первой порции уже приняли решение
+        when(storage.updateStatusByIdInAndStatus(List.of(1L, 2L), Status.WAITING, Status.EXPIRED)).thenReturn(1);
+        when(storage.updateStatusByIdInAndStatus(List.of(3L), Status.WAITING, Status.EXPIRED)).thenReturn(1);
+        BookingExpirySweeper sweeper = new BookingExpirySweeper(storage, transactionTemplate, 2, new SimpleMeterRegistry());
+
+        assertEquals(2, sweeper.expireStaleBookings(LocalDateTime.now()));
+        verify(storage, times(3)).findIdsByStatusAndStartBefore(eq(Status.WAITING), any(), any());
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingStorage.save(booking);
+    }
+}
@@ -1,16 +1,27 @@
 package ru.practicum.shareit.booking.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.interfaces.BookingService;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -18,13 +29,24 @@ import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.interfaces.UserService;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,6 +66,15 @@ class BookingServiceImplTest {
     @Autowired
     private ItemStorage itemStorage;
 
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private User user;
     private Item item;
     private CreateBookingDto createBookingDto;
@@ -142,7 +173,7 @@ class BookingServiceImplTest {
         BookingDto futureBookingDto = bookingService.addBooking(futureBooking, user2Id);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.ALL);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.ALL, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(3, bookings.size());
     }
@@ -178,7 +209,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(currentBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.CURRENT);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.CURRENT, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -218,7 +249,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(pastBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.PAST);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.PAST, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(pastBookingId, bookings.getFirst().getId());
@@ -257,7 +288,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(futureBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.FUTURE);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.FUTURE, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -297,7 +328,7 @@ class BookingServiceImplTest {
         bookingService.patchBooking(pastBookingId, userId, true);
         bookingService.patchBooking(currentBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.WAITING);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.WAITING, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -336,7 +367,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(currentBookingId, userId, false);
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.REJECTED);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.REJECTED, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -354,7 +385,7 @@ class BookingServiceImplTest {
     @Test
     void testGetAllBookingForUserItemsByStatus() {
         bookingService.addBooking(createBookingDto, userId);
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
     }
@@ -390,7 +421,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(currentBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.CURRENT);
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(user2Id, State.CURRENT, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -429,7 +460,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(pastBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.PAST);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.PAST, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(pastBookingId, bookings.getFirst().getId());
@@ -468,7 +499,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(futureBookingId, userId, true);
 
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.FUTURE);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.FUTURE, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -509,7 +540,7 @@ class BookingServiceImplTest {
         bookingService.patchBooking(pastBookingId, userId, true);
 
 
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.WAITING);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.WAITING, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -548,7 +579,7 @@ class BookingServiceImplTest {
 
         BookingDto patchBooking = bookingService.patchBooking(currentBookingId, userId, false);
 
-        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.REJECTED);
+        List<BookingDto> bookings = bookingService.findBookingsByOwnerIdAndState(userId, State.REJECTED, null, 0, 10).getContent();
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -556,6 +587,340 @@ class BookingServiceImplTest {
         assertEquals(patchBooking.getBooker().getId(), user2Id);
     }
 
+    @Test
+    void testGetAllBookingForUserItemsByPages() {
+        for (int i = 1; i <= 5; i++) {
+            CreateBookingDto booking = new CreateBookingDto();
+            booking.setItemId(itemId);
+            booking.setStart(LocalDateTime.now().plusDays(i));
+            booking.setEnd(LocalDateTime.now().plusDays(i).plusHours(1));
+            bookingService.addBooking(booking, userId);
+        }
+
+        Window<BookingDto> firstPage = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL, null, 0, 2);
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.hasNext());
+
+        String cursor = cursorAfter(firstPage);
+        Window<BookingDto> secondPage = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL, cursor, 0, 2);
+        assertEquals(2, secondPage.size());
+        assertTrue(secondPage.getContent().getFirst().getStart().isBefore(firstPage.getContent().getLast().getStart()));
+
+        Window<BookingDto> offsetPage = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL, null, 2, 2);
+        assertEquals(secondPage.getContent().stream().map(BookingDto::getId).toList(),
+                offsetPage.getContent().stream().map(BookingDto::getId).toList());
+
+        cursor = cursorAfter(secondPage);
+        Window<BookingDto> lastPage = bookingService.findBookingsByOwnerIdAndState(userId, State.ALL, cursor, 0, 2);
+        assertEquals(1, lastPage.size());
+        assertFalse(lastPage.hasNext());
+    }
+
+    @Test
+    void testGetBookingsWithInvalidCursor() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.findBookingsByBookerIdAndState(userId, State.ALL, "broken", 0, 10));
+    }
+
+    @Test
+    void testCreateBookingIntersectingApproved() {
+        Booking approved = new Booking();
+        approved.setItem(item);
+        approved.setBooker(user);
+        approved.setStart(createBookingDto.getStart());
+        approved.setEnd(createBookingDto.getEnd());
+        approved.setStatus(Status.APPROVED);
+        bookingStorage.save(approved);
+
+        assertThrows(ValidationException.class, () -> bookingService.addBooking(createBookingDto, userId));
+
+        createBookingDto.setStart(approved.getEnd().plusMinutes(1));
+        createBookingDto.setEnd(approved.getEnd().plusHours(1));
+        assertNotNull(bookingService.addBooking(createBookingDto, userId));
+    }
+
+    @Test
+    void testGetBookingsWithConstantStatementCount() {
+        for (int i = 0; i < 5; i++) {
+            User owner = new User();
+            owner.setName("Owner " + i);
+            owner.setEmail("owner" + i + "@example.com");
+            owner = userStorage.save(owner);
+
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setDescription("Request " + i);
+            itemRequest.setRequestor(owner);
+            itemRequest.setCreated(LocalDateTime.now());
+            itemRequest = itemRequestStorage.save(itemRequest);
+
+            Item ownerItem = new Item();
+            ownerItem.setName("Item " + i);
+            ownerItem.setDescription("Description " + i);
+            ownerItem.setAvailable(true);
+            ownerItem.setOwner(owner);
+            ownerItem.setRequest(itemRequest);
+            ownerItem = itemStorage.save(ownerItem);
+
+            Booking booking = new Booking();
+            booking.setItem(ownerItem);
+            booking.setBooker(user);
+            booking.setStart(LocalDateTime.now().plusDays(i + 1));
+            booking.setEnd(LocalDateTime.now().plusDays(i + 2));
+            booking.setStatus(Status.WAITING);
+            bookingStorage.save(booking);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<BookingDto> bookings = bookingService.findBookingsByBookerIdAndState(userId, State.ALL, null, 0, 10).getContent();
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(5, bookings.size());
+        // Проверка пользователя и сама выборка, независимо от числа бронирований
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void testDetailsGraphLoadsOwnerAndRequestorInOneStatement() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("graph-owner@example.com");
+        owner = userStorage.save(owner);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> bookingIds = new ArrayList<>();
+        // По бронированию на каждое состояние, у каждой вещи свой запрос со своим автором
+        Status[] statuses = {Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.WAITING, Status.REJECTED};
+        long[] startDays = {-3, -1, 2, 3, 4};
+        for (int i = 0; i < statuses.length; i++) {
+            User requestor = new User();
+            requestor.setName("Requestor " + i);
+            requestor.setEmail("graph-requestor" + i + "@example.com");
+            requestor = userStorage.save(requestor);
+
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setDescription("Request " + i);
+            itemRequest.setRequestor(requestor);
+            itemRequest.setCreated(now);
+            itemRequest = itemRequestStorage.save(itemRequest);
+
+            Item ownerItem = new Item();
+            ownerItem.setName("Item " + i);
+            ownerItem.setDescription("Description " + i);
+            ownerItem.setAvailable(true);
+            ownerItem.setOwner(owner);
+            ownerItem.setRequest(itemRequest);
+            ownerItem = itemStorage.save(ownerItem);
+
+            Booking booking = new Booking();
+            booking.setItem(ownerItem);
+            booking.setBooker(user);
+            booking.setStart(now.plusDays(startDays[i]));
+            booking.setEnd(now.plusDays(startDays[i] + 2));
+            booking.setStatus(statuses[i]);
+            bookingIds.add(bookingStorage.save(booking).getId());
+        }
+        entityManager.flush();
+
+        long ownerId = owner.getId();
+        ScrollPosition position = ScrollPosition.keyset();
+        Limit limit = Limit.of(10);
+        Map<String, Supplier<List<Booking>>> consumers = new LinkedHashMap<>();
+        consumers.put("booker ALL", () -> bookingStorage.findAllByBookerIdOrderByStartDescIdDesc(userId, position, limit).getContent());
+        consumers.put("booker CURRENT", () -> bookingStorage.findAllByBookerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(
+                userId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("booker PAST", () -> bookingStorage.findAllByBookerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(
+                userId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("booker FUTURE", () -> bookingStorage.findAllByBookerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(
+                userId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("booker status", () -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                userId, Status.WAITING, position, limit).getContent());
+        consumers.put("owner ALL", () -> bookingStorage.findAllByItemOwnerIdOrderByStartDescIdDesc(ownerId, position, limit).getContent());
+        consumers.put("owner CURRENT", () -> bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsAfterOrderByStartDescIdDesc(
+                ownerId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("owner PAST", () -> bookingStorage.findAllByItemOwnerIdAndStatusAndEndIsBeforeOrderByStartDescIdDesc(
+                ownerId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("owner FUTURE", () -> bookingStorage.findAllByItemOwnerIdAndStatusAndStartIsAfterOrderByStartDescIdDesc(
+                ownerId, Status.APPROVED, now, position, limit).getContent());
+        consumers.put("owner status", () -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                ownerId, Status.REJECTED, position, limit).getContent());
+        consumers.put("booker export", () -> {
+            try (Stream<Booking> stream = bookingStorage.streamAllByBookerIdOrderByStartDescIdDesc(userId)) {
+                return stream.toList();
+            }
+        });
+        consumers.put("owner export", () -> {
+            try (Stream<Booking> stream = bookingStorage.streamAllByItemOwnerIdOrderByStartDescIdDesc(ownerId)) {
+                return stream.toList();
+            }
+        });
+        consumers.put("batch", () -> bookingStorage.findAllByIdIn(bookingIds));
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            for (Map.Entry<String, Supplier<List<Booking>>> consumer : consumers.entrySet()) {
+                entityManager.clear();
+                statistics.clear();
+                List<Booking> bookings = consumer.getValue().get();
+                assertFalse(bookings.isEmpty(), consumer.getKey());
+                for (Booking booking : bookings) {
+                    assertNotNull(booking.getBooker().getName());
+                    assertEquals("Owner", booking.getItem().getOwner().getName());
+                    assertNotNull(booking.getItem().getRequest().getRequestor().getName());
+                }
+                // Ленивые владелец и автор запроса приходят в той же выборке, что и бронирования
+                assertEquals(1, statistics.getPrepareStatementCount(), consumer.getKey());
+            }
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void testPatchBookingsBatch() {
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userStorage.save(user2);
+
+        Long first = bookingService.addBooking(createBookingDto, user2.getId()).getId();
+        Long overlapping = bookingService.addBooking(createBookingDto, user2.getId()).getId();
+        createBookingDto.setStart(createBookingDto.getEnd().plusHours(1));
+        createBookingDto.setEnd(createBookingDto.getEnd().plusHours(2));
+        Long rejected = bookingService.addBooking(createBookingDto, user2.getId()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<BookingDecisionResultDto> results = bookingService.patchBookings(List.of(
+                decision(first, true),
+                decision(999L, true),
+                decision(overlapping, true),
+                decision(rejected, false),
+                decision(first, false)), userId);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(5, results.size());
+        assertEquals(Status.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(999L, results.get(1).getBookingId());
+        assertNotNull(results.get(1).getError());
+        assertEquals(Status.WAITING, results.get(2).getStatus());
+        assertNotNull(results.get(2).getError());
+        assertEquals(Status.REJECTED, results.get(3).getStatus());
+        assertNotNull(results.get(4).getError());
+        // Предметы для блокировок, выборка под блокировками и условный UPDATE на каждое применённое решение,
+        // индекс пересечений уже загружен при создании бронирований
+        assertEquals(4, statements);
+        assertEquals(Status.APPROVED, bookingStorage.findById(first).orElseThrow().getStatus());
+
+        List<BookingDecisionResultDto> notOwner = bookingService.patchBookings(List.of(decision(overlapping, true)), user2.getId());
+        assertNotNull(notOwner.getFirst().getError());
+    }
+
+    @Test
+    void testPatchBookingsSkipsRowChangedAfterRead() {
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userStorage.save(user2);
+        Long expired = bookingService.addBooking(createBookingDto, user2.getId()).getId();
+        createBookingDto.setStart(createBookingDto.getEnd().plusHours(1));
+        createBookingDto.setEnd(createBookingDto.getEnd().plusHours(2));
+        Long approved = bookingService.addBooking(createBookingDto, user2.getId()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Пакет видит прочитанную ранее версию, а истечение уже изменило строку в базе
+        bookingStorage.findById(expired).orElseThrow();
+        bookingStorage.updateStatusByIdInAndStatus(List.of(expired), Status.WAITING, Status.EXPIRED);
+        List<BookingDecisionResultDto> results = bookingService.patchBookings(List.of(
+                decision(expired, true),
+                decision(approved, true)), userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotNull(results.get(0).getError());
+        assertNull(results.get(1).getError());
+        assertEquals(Status.APPROVED, results.get(1).getStatus());
+        assertEquals(Status.EXPIRED, bookingStorage.findById(expired).orElseThrow().getStatus());
+        assertEquals(Status.APPROVED, bookingStorage.findById(approved).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testCountBookingsByState() {
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userStorage.save(user2);
+        Long user2Id = user2.getId();
+
+        CreateBookingDto pastBooking = new CreateBookingDto();
+        pastBooking.setItemId(itemId);
+        pastBooking.setStart(LocalDateTime.now().minusDays(3));
+        pastBooking.setEnd(LocalDateTime.now().minusDays(2));
+        bookingService.patchBooking(bookingService.addBooking(pastBooking, user2Id).getId(), userId, true);
+
+        CreateBookingDto futureBooking = new CreateBookingDto();
+        futureBooking.setItemId(itemId);
+        futureBooking.setStart(LocalDateTime.now().plusDays(1));
+        futureBooking.setEnd(LocalDateTime.now().plusDays(2));
+        bookingService.patchBooking(bookingService.addBooking(futureBooking, user2Id).getId(), userId, true);
+
+        bookingService.patchBooking(bookingService.addBooking(createBookingDto, user2Id).getId(), userId, false);
+        bookingService.addBooking(createBookingDto, user2Id);
+
+        BookingCountsDto counts = bookingService.countBookingsByOwnerId(userId);
+        assertEquals(new BookingCountsDto(4L, 1L, 1L, 1L, 1L, 1L), counts);
+        assertEquals(counts, bookingService.countBookingsByBookerId(user2Id));
+        assertEquals(new BookingCountsDto(0L, 0L, 0L, 0L, 0L, 0L), bookingService.countBookingsByBookerId(userId));
+        assertThrows(NotFoundException.class, () -> bookingService.countBookingsByOwnerId(999L));
+    }
+
+    @Test
+    void testExportBookings() throws IOException {
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userStorage.save(user2);
+        Long user2Id = user2.getId();
+
+        for (int i = 1; i <= 3; i++) {
+            CreateBookingDto booking = new CreateBookingDto();
+            booking.setItemId(itemId);
+            booking.setStart(LocalDateTime.now().plusDays(i));
+            booking.setEnd(LocalDateTime.now().plusDays(i).plusHours(1));
+            bookingService.addBooking(booking, user2Id);
+        }
+
+        List<Long> expectedIds = bookingService.findBookingsByBookerIdAndState(user2Id, State.ALL, null, 0, 10)
+                .getContent().stream().map(BookingDto::getId).toList();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bookingService.exportBookingsByBookerId(user2Id).writeTo(outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(3, lines.length);
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : lines) {
+            exportedIds.add(objectMapper.readValue(line, BookingDto.class).getId());
+        }
+        assertEquals(expectedIds, exportedIds);
+
+        outputStream.reset();
+        bookingService.exportBookingsByOwnerId(userId).writeTo(outputStream);
+        assertEquals(bookingStorage.findAll().size(), outputStream.toString(StandardCharsets.UTF_8).split("\n").length);
+        assertThrows(NotFoundException.class, () -> bookingService.exportBookingsByBookerId(999L));
+    }
+
     @Test
     void testGetByIdWithInvalidUserId() {
         BookingDto createdBooking = bookingService.addBooking(createBookingDto, userId);
@@ -579,4 +944,16 @@ class BookingServiceImplTest {
         createBookingDto.setItemId(999L);
         assertThrows(NotFoundException.class, () -> bookingService.addBooking(createBookingDto, userId));
     }
-}
\ No newline at end of file
+
+    private static String cursorAfter(Window<BookingDto> page) {
+        BookingDto last = page.getContent().getLast();
+        return KeysetCursor.of(last.getStart(), last.getId()).encode();
+    }
+
+    private BookingDecisionDto decision(Long bookingId, boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class BookingIntervalIndexTest {
+    private static final long ITEM_ID = 1L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingStorage bookingStorage;
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookingStorage = mock(BookingStorage.class);
+        when(bookingStorage.findAllApprovedIntervalsByItemId(ITEM_ID)).thenReturn(List.of(
+                new BookingInterval(BASE, BASE.plusDays(1)),
+                new BookingInterval(BASE.plusHours(12), BASE.plusDays(2)),
+                new BookingInterval(BASE.plusDays(5), BASE.plusDays(6))));
+        bookingIntervalIndex = new BookingIntervalIndex(bookingStorage, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testIntersectingWithLoadedIntervals() {
+        assertTrue(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(1).plusHours(1), BASE.plusDays(1).plusHours(2)));
+        assertTrue(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(4), BASE.plusDays(5)));
+        assertTrue(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.minusDays(1), BASE.plusDays(10)));
+        assertFalse(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+        assertFalse(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(7), BASE.plusDays(8)));
+        verify(bookingStorage, times(1)).findAllApprovedIntervalsByItemId(ITEM_ID);
+    }
+
+    @Test
+    void testAddApprovedAndInvalidate() {
+        assertFalse(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+
+        bookingIntervalIndex.addApproved(ITEM_ID, BASE.plusDays(2), BASE.plusDays(5));
+        assertTrue(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+
+        bookingIntervalIndex.invalidate(ITEM_ID);
+        assertFalse(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+        verify(bookingStorage, times(2)).findAllApprovedIntervalsByItemId(ITEM_ID);
+    }
+
+    @Test
+    void testFindFreeIntervals() {
+        List<BookingInterval> free = bookingIntervalIndex.findFreeIntervals(ITEM_ID, BASE.plusHours(6), BASE.plusDays(7));
+        assertEquals(List.of(
+                new BookingInterval(BASE.plusDays(2), BASE.plusDays(5)),
+                new BookingInterval(BASE.plusDays(6), BASE.plusDays(7))), free);
+
+        assertEquals(List.of(), bookingIntervalIndex.findFreeIntervals(ITEM_ID, BASE.plusHours(1), BASE.plusHours(2)));
+        assertEquals(List.of(new BookingInterval(BASE.minusDays(2), BASE)),
+                bookingIntervalIndex.findFreeIntervals(ITEM_ID, BASE.minusDays(2), BASE.plusHours(1)));
+    }
+
+    @Test
+    void testReloadWhenStale() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingStorage, 100, Duration.ZERO);
+
+        bookingIntervalIndex.isIntersecting(ITEM_ID, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(ITEM_ID, BASE, BASE.plusDays(1));
+        verify(bookingStorage, atLeast(2)).findAllApprovedIntervalsByItemId(ITEM_ID);
+    }
+
+    @Test
+    void testIntervalsLoadedInRolledBackTransactionAreDropped() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.isIntersecting(ITEM_ID, BASE, BASE.plusDays(1));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        bookingIntervalIndex.isIntersecting(ITEM_ID, BASE, BASE.plusDays(1));
+        verify(bookingStorage, times(2)).findAllApprovedIntervalsByItemId(ITEM_ID);
+    }
+
+    @Test
+    void testApprovalCommittedDuringLoadIsNotLost() {
+        List<BookingInterval> loaded = List.of(new BookingInterval(BASE, BASE.plusDays(1)));
+        List<BookingInterval> reloaded = List.of(new BookingInterval(BASE, BASE.plusDays(1)),
+                new BookingInterval(BASE.plusDays(3), BASE.plusDays(4)));
+        // Подтверждение фиксируется, пока интервалы читаются из базы, и в прочитанное не попадает
+        when(bookingStorage.findAllApprovedIntervalsByItemId(ITEM_ID))
+                .thenAnswer(invocation -> {
+                    bookingIntervalIndex.addApproved(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4));
+                    return loaded;
+                })
+                .thenReturn(reloaded);
+
+        assertFalse(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+        assertTrue(bookingIntervalIndex.isIntersecting(ITEM_ID, BASE.plusDays(3), BASE.plusDays(4)));
+        verify(bookingStorage, times(2)).findAllApprovedIntervalsByItemId(ITEM_ID);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyCheckedItems() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingStorage, 2, Duration.ofMinutes(10));
+
+        bookingIntervalIndex.isIntersecting(1L, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(2L, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(1L, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(3L, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(1L, BASE, BASE.plusDays(1));
+        bookingIntervalIndex.isIntersecting(2L, BASE, BASE.plusDays(1));
+
+        verify(bookingStorage, times(1)).findAllApprovedIntervalsByItemId(1L);
+        verify(bookingStorage, times(2)).findAllApprovedIntervalsByItemId(2L);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedCacheTest {
+    @Test
+    void testEvictsLeastRecentlyRead() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("c", cache.get(3L));
+        assertEquals(1, cache.evictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testEvictsWithMarginWhenFull() {
+        BoundedCache<Long, Long> cache = new BoundedCache<>(100);
+        for (long i = 0; i <= 100; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(90, cache.size());
+        assertEquals(11, cache.evictions());
+        assertNull(cache.get(10L));
+        assertEquals(11L, cache.get(11L));
+    }
+
+    @Test
+    void testExpiredEntryIsAbsent() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ZERO);
+        cache.put(1L, "a");
+
+        assertNull(cache.get(1L));
+        assertNull(cache.putIfAbsent(1L, "b"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void testLoadedValueDroppedWhenInvalidatedDuringLoad() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        assertEquals("stale", cache.get(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        }));
+        assertNull(cache.get(1L));
+
+        assertEquals("old", cache.get(2L, key -> {
+            cache.update(key, value -> value + "!");
+            return "old";
+        }));
+        assertEquals("fresh", cache.get(2L, key -> "fresh"));
+        cache.update(2L, value -> value + "!");
+        assertEquals("fresh!", cache.get(2L));
+    }
+
+    @Test
+    void testRemoveOnlyOwnValue() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+        String loaded = cache.get(1L, key -> "loaded");
+        cache.remove(1L, "other");
+        assertEquals(loaded, cache.get(1L));
+        cache.remove(1L, loaded);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testConcurrentAccessStaysBounded() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1000);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int key = (i * 31 + seed) % 3000;
+                    int value = cache.get(key, k -> {
+                        loads.incrementAndGet();
+                        return k;
+                    });
+                    assertEquals(key, value);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(cache.size() <= 1000 + 8);
+        assertTrue(loads.get() >= 3000);
+    }
+
+    @Test
+    void testTransactionCallbacks() {
+        List<String> calls = new ArrayList<>();
+        TransactionCallbacks.afterCommit(() -> calls.add("now"));
+        TransactionCallbacks.onRollback(() -> calls.add("never"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionCallbacks.afterCommit(() -> calls.add("commit"));
+            TransactionCallbacks.onRollback(() -> calls.add("rollback"));
+            assertEquals(List.of("now"), calls);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("now", "commit", "rollback"), calls);
+    }
+}
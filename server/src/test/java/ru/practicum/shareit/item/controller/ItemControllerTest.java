@@ -8,18 +8,27 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.interfaces.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +46,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImporter itemImporter;
+
     private ItemDto itemDto;
     private CommentDto commentDto;
     private Long userId = 1L;
@@ -75,9 +87,65 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.[0].available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    void testGetAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 5, 10, 0);
+        when(itemService.getAvailability(anyLong(), any(), any()))
+                .thenReturn(List.of(new BookingInterval(from, to.minusDays(2))));
+
+        mockMvc.perform(get("/items/" + itemId + "/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$.[0].end", is("2030-01-03T10:00:00")));
+
+        verify(itemService).getAvailability(itemId, from, to);
+    }
+
+    @Test
+    void testSuggestNames() throws Exception {
+        when(itemService.suggestNames(anyString(), anyInt()))
+                .thenReturn(List.of("дрель", "дрели"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0]", is("дрель")));
+
+        verify(itemService).suggestNames("дре", 5);
+    }
+
+    @Test
+    void testGetComments() throws Exception {
+        CommentDto comment = new CommentDto(5L, "Text", itemId, "Author", LocalDateTime.of(2030, 1, 1, 10, 0));
+        when(itemService.getComments(anyLong(), any(), anyInt()))
+                .thenReturn(Window.from(List.of(comment), ScrollPosition::offset, true));
+
+        mockMvc.perform(get("/items/" + itemId + "/comments")
+                        .param("after", "cursor")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", KeysetCursor.of(comment.getCreated(), comment.getId()).encode()))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].authorName", is("Author")));
+
+        verify(itemService).getComments(itemId, "cursor", 1);
+    }
+
     @Test
     void testGetById() throws Exception {
-        when(itemService.getItem(anyLong()))
+        when(itemService.getItem(anyLong(), any()))
                 .thenReturn(itemDto);
 
         mockMvc.perform(get("/items/" + itemId)
@@ -94,7 +162,7 @@ class ItemControllerTest {
 
     @Test
     void testFindByText() throws Exception {
-        when(itemService.searchItems(anyString(), anyLong()))
+        when(itemService.searchItems(anyString(), anyLong(), anyInt(), anyInt(), any(), any()))
                 .thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
@@ -112,6 +180,23 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.[0].available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    void testImportItems() throws Exception {
+        when(itemImporter.importItems(eq(userId), any(MediaType.class), any()))
+                .thenReturn(new ItemImportReport(1, 1, List.of(new ItemImportError(2, "Не указано название"))));
+
+        mockMvc.perform(post("/items/import")
+                        .content("name,description,available\n,Без названия,true\nДрель,Мощная,true\n")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType("text/csv")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)))
+                .andExpect(jsonPath("$.errors[0].error", is("Не указано название")));
+    }
+
     @Test
     void testCreateItem() throws Exception {
         when(itemService.addItem(any(ItemDto.class), anyLong()))
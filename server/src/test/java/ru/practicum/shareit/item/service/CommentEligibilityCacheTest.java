@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentEligibilityCacheTest {
+    private final CommentEligibilityCache cache = new CommentEligibilityCache(2);
+
+    @Test
+    void testMarkAndEvictLeastRecentlyUsed() {
+        cache.markEligible(1L, 10L);
+        cache.markEligible(2L, 10L);
+        assertTrue(cache.isEligible(1L, 10L));
+        assertFalse(cache.isEligible(10L, 1L));
+
+        cache.markEligible(3L, 10L);
+        assertTrue(cache.isEligible(1L, 10L));
+        assertFalse(cache.isEligible(2L, 10L));
+        assertTrue(cache.isEligible(3L, 10L));
+    }
+
+    @Test
+    void testMarkedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.markEligible(1L, 10L);
+            cache.markEligible(2L, 10L);
+            assertFalse(cache.isEligible(1L, 10L));
+
+            TransactionSynchronizationManager.getSynchronizations().getFirst().afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(cache.isEligible(1L, 10L));
+        assertFalse(cache.isEligible(2L, 10L));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+    private LongFunction<ItemCache.CachedItem> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return new ItemCache.CachedItem(ItemDto.builder().id(id).name("Item " + id).build(), 100L);
+        };
+    }
+
+    @Test
+    void testHitReturnsCopyOfCachedItem() {
+        ItemCache itemCache = new ItemCache(10, Duration.ofMinutes(5), meterRegistry);
+
+        ItemCache.CachedItem first = itemCache.get(1L, loader);
+        first.item().setLastBooking(LocalDateTime.now());
+        ItemCache.CachedItem second = itemCache.get(1L, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(100L, second.ownerId());
+        assertNull(second.item().getLastBooking());
+        assertEquals(1.0, meterRegistry.counter("shareit.item.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("shareit.item.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyReadItems() {
+        ItemCache itemCache = new ItemCache(2, Duration.ofMinutes(5), meterRegistry);
+
+        itemCache.get(1L, loader);
+        itemCache.get(2L, loader);
+        itemCache.get(1L, loader);
+        itemCache.get(3L, loader);
+        itemCache.get(1L, loader);
+        itemCache.get(2L, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2.0, meterRegistry.get("shareit.item.cache.evictions").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("shareit.item.cache.size").gauge().value());
+    }
+
+    @Test
+    void testInvalidateAndExpire() {
+        ItemCache itemCache = new ItemCache(10, Duration.ofMinutes(5), meterRegistry);
+        itemCache.get(1L, loader);
+        itemCache.invalidate(1L);
+        itemCache.get(1L, loader);
+        assertEquals(2, loads.get());
+
+        SimpleMeterRegistry expiringRegistry = new SimpleMeterRegistry();
+        ItemCache expiring = new ItemCache(10, Duration.ZERO, expiringRegistry);
+        expiring.get(1L, loader);
+        expiring.get(1L, loader);
+        assertEquals(4, loads.get());
+        assertEquals(1.0, expiringRegistry.get("shareit.item.cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void testItemInvalidatedDuringLoadIsNotCached() {
+        ItemCache itemCache = new ItemCache(10, Duration.ofMinutes(5), meterRegistry);
+
+        // Изменение вещи зафиксировано, пока параллельный запрос собирал её старую карточку
+        ItemCache.CachedItem stale = itemCache.get(1L, id -> {
+            itemCache.invalidate(id);
+            return loader.apply(id);
+        });
+        itemCache.get(1L, loader);
+
+        assertEquals(1L, stale.item().getId());
+        assertEquals(2, loads.get());
+    }
+}
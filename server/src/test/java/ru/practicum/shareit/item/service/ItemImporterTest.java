@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearch;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.item.import.batch-size=2")
+@Transactional
+class ItemImporterTest {
+    @Autowired
+    private ItemImporter itemImporter;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+
+    @Autowired
+    private ItemSearch itemSearch;
+
+    private User owner;
+    private ItemRequest itemRequest;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("Shop");
+        owner.setEmail("shop@example.com");
+        owner = userStorage.save(owner);
+
+        itemRequest = new ItemRequest();
+        itemRequest.setDescription("Нужна стремянка");
+        itemRequest.setRequestor(owner);
+        itemRequest.setCreated(LocalDateTime.now());
+        itemRequest = itemRequestStorage.save(itemRequest);
+    }
+
+    @Test
+    void testImportNdjson() throws IOException {
+        String body = """
+                {"name": "Перфоратор", "description": "Мощный", "available": true}
+                {"name": "Стремянка", "description": "Три ступени", "available": false, "requestId": %d}
+                {"name": "", "description": "Без названия", "available": true}
+
+                не json
+                {"name": "Лобзик", "description": "Ручной", "available": true, "requestId": 999}
+                {"name": "Шуруповёрт", "description": "С битами", "available": true}
+                """.formatted(itemRequest.getId());
+
+        ItemImportReport report = itemImporter.importItems(owner.getId(), MediaType.APPLICATION_NDJSON, stream(body));
+
+        assertEquals(3, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(new ItemImportError(3, "Не указано название"),
+                new ItemImportError(5, "Некорректная строка"),
+                new ItemImportError(6, "Запрос не найден")), report.errors());
+
+        Map<String, Item> items = itemStorage.findAllByOwnerId(owner.getId()).stream()
+                .collect(Collectors.toMap(Item::getName, Function.identity()));
+        assertEquals(3, items.size());
+        assertEquals(itemRequest.getId(), items.get("Стремянка").getRequest().getId());
+        assertFalse(items.get("Стремянка").getAvailable());
+        assertNull(items.get("Перфоратор").getRequest());
+        assertEquals(List.of(items.get("Шуруповёрт").getId()), itemSearch.search("шуруповерт", 0, 10));
+    }
+
+    @Test
+    void testImportCsv() throws IOException {
+        String body = """
+                Available,Name,Description
+                true,"Дрель, ударная","Сверло ""по бетону"" в комплекте"
+                maybe,Пила,Цепная
+                false,Пила,"Незакрытая
+                TRUE,Тачка,Садовая
+                """;
+
+        ItemImportReport report = itemImporter.importItems(owner.getId(), MediaType.parseMediaType("text/csv"), stream(body));
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(new ItemImportError(3, "Некорректная строка"),
+                new ItemImportError(4, "Некорректная строка")), report.errors());
+        Map<String, Item> items = itemStorage.findAllByOwnerId(owner.getId()).stream()
+                .collect(Collectors.toMap(Item::getName, Function.identity()));
+        assertEquals("Сверло \"по бетону\" в комплекте", items.get("Дрель, ударная").getDescription());
+        assertTrue(items.get("Тачка").getAvailable());
+    }
+
+    @Test
+    void testImportRejectsBadHeaderAndUnknownUser() {
+        assertThrows(ValidationException.class, () -> itemImporter.importItems(owner.getId(),
+                MediaType.parseMediaType("text/csv"), stream("name,description\nДрель,Мощная\n")));
+        assertThrows(NotFoundException.class, () -> itemImporter.importItems(999L,
+                MediaType.APPLICATION_NDJSON, stream("")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,24 +5,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.interfaces.ItemService;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,9 +113,41 @@ public class ItemServiceImplTest {
         assertEquals(itemDto.getId(), items.get(0).getId());
     }
 
+    @Test
+    void testGetAllByUserIdWithBookingDates() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        User booker = userStorage.findById(userId).orElseThrow();
+        Booking last = saveBooking(item, booker, now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        Booking next = saveBooking(item, booker, now.plusDays(2), now.plusDays(3), Status.APPROVED);
+        saveBooking(item, booker, now.plusDays(4), now.plusDays(5), Status.APPROVED);
+        saveBooking(item, booker, now.plusDays(1), now.plusDays(2), Status.REJECTED);
+        bookingStorage.deleteById(bookingId);
+
+        ItemDto itemWithoutBookings = itemService.addItem(ItemDto.builder()
+                .name("Second Item")
+                .description("Second Description")
+                .available(true)
+                .build(), userId);
+
+        List<ItemDto> items = itemService.getAllItems(userId);
+        assertEquals(2, items.size());
+        ItemDto booked = items.stream().filter(i -> i.getId().equals(itemId)).findFirst().orElseThrow();
+        assertEquals(last.getEnd(), booked.getLastBooking());
+        assertEquals(next.getStart(), booked.getNextBooking());
+        ItemDto notBooked = items.stream().filter(i -> i.getId().equals(itemWithoutBookings.getId())).findFirst().orElseThrow();
+        assertNull(notBooked.getLastBooking());
+        assertNull(notBooked.getNextBooking());
+
+        ItemDto ownerView = itemService.getItem(itemId, userId);
+        assertEquals(next.getStart(), ownerView.getNextBooking());
+        ItemDto guestView = itemService.getItem(itemId, null);
+        assertNull(guestView.getNextBooking());
+    }
+
     @Test
     void testGetById() {
-        ItemDto item = itemService.getItem(itemId);
+        ItemDto item = itemService.getItem(itemId, null);
         assertNotNull(item);
         assertEquals(itemDto.getId(), item.getId());
         assertEquals(itemDto.getName(), item.getName());
@@ -115,14 +155,139 @@ public class ItemServiceImplTest {
         assertEquals(itemDto.getAvailable(), item.getAvailable());
     }
 
+    @Test
+    void testGetByIdAfterPatchAndComment() {
+        assertTrue(itemService.getItem(itemId, null).getComments().isEmpty());
+
+        itemService.patchItem(ItemDto.builder().name("Patched Name").build(), userId, itemId);
+        itemService.addComment(userId, itemId, commentDto.getText());
+
+        ItemDto item = itemService.getItem(itemId, null);
+        assertEquals("Patched Name", item.getName());
+        assertEquals(1, item.getComments().size());
+        assertEquals(commentDto.getText(), item.getComments().getFirst().getText());
+    }
+
+    @Test
+    void testCommentStats() {
+        assertEquals(0, itemService.getItem(itemId, null).getCommentCount());
+        assertNull(itemService.getItem(itemId, null).getLastCommentAt());
+
+        itemService.addComment(userId, itemId, commentDto.getText());
+        CommentDto last = itemService.addComment(userId, itemId, "Second comment");
+        itemService.patchItem(ItemDto.builder().name("Test Patched").build(), userId, itemId);
+
+        ItemDto item = itemService.getItem(itemId, null);
+        assertEquals(2, item.getCommentCount());
+        assertNotNull(item.getLastCommentAt());
+        assertFalse(item.getLastCommentAt().isBefore(last.getCreated().truncatedTo(ChronoUnit.SECONDS)));
+        ItemDto found = itemService.searchItems("Patched", userId, 0, 10, null, null).getFirst();
+        assertEquals(itemId, found.getId());
+        assertEquals(2, found.getCommentCount());
+    }
+
+    @Test
+    void testGetCommentsByCursor() {
+        User user = userStorage.findById(userId).orElseThrow();
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1);
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            // Пары отзывов с одинаковым временем проверяют порядок по id
+            Comment comment = CommentMapper.toComment("Comment " + i, user, item, base.plusMinutes(i / 2));
+            newestFirst.addFirst(commentStorage.save(comment).getId());
+        }
+
+        ItemDto itemView = itemService.getItem(itemId, null);
+        assertEquals(newestFirst.subList(0, 10), itemView.getComments().stream().map(CommentDto::getId).toList());
+        assertNotNull(itemView.getCommentsCursor());
+
+        Window<CommentDto> page = itemService.getComments(itemId, itemView.getCommentsCursor(), 2);
+        assertEquals(newestFirst.subList(10, 12), page.getContent().stream().map(CommentDto::getId).toList());
+        assertTrue(page.hasNext());
+        assertEquals(user.getName(), page.getContent().getFirst().getAuthorName());
+        assertEquals(itemId, page.getContent().getFirst().getItemId());
+
+        CommentDto last = page.getContent().getLast();
+        page = itemService.getComments(itemId, KeysetCursor.of(last.getCreated(), last.getId()).encode(), 2);
+        assertEquals(newestFirst.subList(12, 13), page.getContent().stream().map(CommentDto::getId).toList());
+        assertFalse(page.hasNext());
+
+        assertThrows(ValidationException.class, () -> itemService.getComments(itemId, "not-a-cursor", 2));
+        assertThrows(NotFoundException.class, () -> itemService.getComments(999L, null, 2));
+    }
+
     @Test
     void testFindByText() {
-        List<ItemDto> items = itemService.searchItems("Test", userId);
+        List<ItemDto> items = itemService.searchItems("Test", userId, 0, 10, null, null);
         assertFalse(items.isEmpty());
         assertEquals(1, items.size());
         assertEquals(itemDto.getId(), items.getFirst().getId());
     }
 
+    @Test
+    void testFindByTextRankedAndPaged() {
+        ItemDto descriptionMatch = itemService.addItem(ItemDto.builder()
+                .name("Another Name")
+                .description("Test only in description")
+                .available(true)
+                .build(), userId);
+
+        assertEquals(List.of(itemId, descriptionMatch.getId()), itemService.searchItems("test", userId, 0, 10, null, null).stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertEquals(List.of(descriptionMatch.getId()), itemService.searchItems("test", userId, 1, 1, null, null).stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertThrows(ValidationException.class, () -> itemService.searchItems("test", userId, -1, 10, null, null));
+        assertThrows(ValidationException.class, () -> itemService.searchItems("test", userId, 0, 0, null, null));
+    }
+
+    @Test
+    void testFindByTextInFreePeriod() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(10);
+        LocalDateTime end = start.plusDays(2);
+        User booker = userStorage.findById(userId).orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(itemService.addItem(ItemDto.builder()
+                    .name("Дрель " + i)
+                    .description("Сетевая")
+                    .available(true)
+                    .build(), userId).getId());
+        }
+        saveBooking(itemStorage.findById(ids.get(0)).orElseThrow(), booker, start.minusDays(1), start, Status.APPROVED);
+        saveBooking(itemStorage.findById(ids.get(1)).orElseThrow(), booker, start.plusDays(1), end.plusDays(1), Status.WAITING);
+        saveBooking(itemStorage.findById(ids.get(2)).orElseThrow(), booker, end.plusSeconds(1), end.plusDays(1), Status.APPROVED);
+        saveBooking(itemStorage.findById(ids.get(3)).orElseThrow(), booker, start.plusHours(1), start.plusHours(2), Status.APPROVED);
+
+        assertEquals(ids, itemService.searchItems("дрель", userId, 0, 10, null, null).stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertEquals(List.of(ids.get(1), ids.get(2)), itemService.searchItems("дрель", userId, 0, 10, start, end).stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertEquals(List.of(ids.get(2)), itemService.searchItems("дрель", userId, 1, 1, start, end).stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertTrue(itemService.searchItems("дрель", userId, 2, 1, start, end).isEmpty());
+        assertThrows(ValidationException.class, () -> itemService.searchItems("дрель", userId, 0, 10, start, null));
+        assertThrows(ValidationException.class, () -> itemService.searchItems("дрель", userId, 0, 10, end, start));
+    }
+
+    @Test
+    void testFindByTextAfterPatch() {
+        ItemDto patch = ItemDto.builder()
+                .name("Перфоратор")
+                .build();
+        itemService.patchItem(patch, userId, itemId);
+        assertEquals(List.of(itemId), itemService.searchItems("перфо", userId, 0, 10, null, null).stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(itemId), itemService.searchItems("description", userId, 0, 10, null, null).stream().map(ItemDto::getId).toList());
+
+        itemService.patchItem(ItemDto.builder().available(false).build(), userId, itemId);
+        assertTrue(itemService.searchItems("перфоратор", userId, 0, 10, null, null).isEmpty());
+    }
+
     @Test
     void testCreateItem() {
         ItemDto newItemInputDto = ItemDto.builder()
@@ -205,6 +370,30 @@ public class ItemServiceImplTest {
         assertThrows(ValidationException.class, () -> itemService.addComment(userId, itemId, commentDto.getText()));
     }
 
+    @Test
+    void testGetAvailability() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        Booking booking = new Booking();
+        booking.setItem(itemStorage.findById(itemId).orElseThrow());
+        booking.setBooker(userStorage.findById(userId).orElseThrow());
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(1));
+        booking.setStatus(Status.APPROVED);
+        bookingStorage.save(booking);
+
+        List<BookingInterval> free = itemService.getAvailability(itemId, start.minusHours(1), start.plusDays(2));
+        assertEquals(List.of(
+                new BookingInterval(start.minusHours(1), start),
+                new BookingInterval(start.plusDays(1), start.plusDays(2))), free);
+    }
+
+    @Test
+    void testGetAvailabilityWithInvalidPeriod() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(ValidationException.class, () -> itemService.getAvailability(itemId, now, now.minusDays(1)));
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(999L, now, now.plusDays(1)));
+    }
+
     @Test
     void testUpdateItemWithNonExistentUser() {
         assertThrows(NotFoundException.class, () -> itemService.patchItem(itemDto, 999L, itemId));
@@ -225,4 +414,14 @@ public class ItemServiceImplTest {
 
         assertThrows(ValidationException.class, () -> itemService.patchItem(itemDto, newUserId, itemId));
     }
-}
\ No newline at end of file
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingStorage.save(booking);
+    }
+}
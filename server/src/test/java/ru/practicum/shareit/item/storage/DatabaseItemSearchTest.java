@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.item.search.mode=database")
+@Transactional
+class DatabaseItemSearchTest {
+    @Autowired
+    private ItemSearch itemSearch;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        owner = userStorage.save(owner);
+    }
+
+    @Test
+    void testSearchRankedAndPaged() {
+        assertInstanceOf(DatabaseItemSearch.class, itemSearch);
+        Long descriptionMatch = saveItem("Отвёртка", "Не дрель", true);
+        Long nameMatch = saveItem("Дрель ударная", "Для бетона", true);
+        Long secondNameMatch = saveItem("Мини-дрель", "Гравёр", true);
+        saveItem("Дрель сломанная", "Не работает", false);
+
+        assertEquals(List.of(nameMatch, secondNameMatch, descriptionMatch), itemSearch.search("ДРЕЛЬ", 0, 10));
+        assertEquals(List.of(secondNameMatch), itemSearch.search("дрель", 1, 1));
+        assertEquals(List.of(descriptionMatch), itemSearch.search("дрель", 2, 5));
+        assertTrue(itemSearch.search("перфоратор", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSuggest() {
+        saveItem("Дрель ударная", "", true);
+        saveItem("Дрель сетевая", "", true);
+        saveItem("Мини-дрели", "", true);
+        saveItem("Удлинитель", "", true);
+
+        assertEquals(List.of("дрель", "дрели"), itemSearch.suggest("Дре", 10));
+        assertEquals(List.of("ударная", "удлинитель"), itemSearch.suggest("дрель уд", 10));
+        assertTrue(itemSearch.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggestMatchesWordStartsOnly() {
+        Long garland = saveItem("Ёлочная гирлянда", "", true);
+        saveItem("Щётка", "", true);
+        saveItem("Тёрка", "", true);
+
+        assertEquals(List.of("елочная"), itemSearch.suggest("ёл", 10));
+        assertEquals(List.of("елочная"), itemSearch.suggest("ел", 10));
+        assertEquals(List.of("щетка"), itemSearch.suggest("щё", 10));
+        assertTrue(itemSearch.suggest("ерк", 10).isEmpty());
+        assertEquals(List.of(garland), itemSearch.search("ЕЛОЧН", 0, 10));
+    }
+
+    @Test
+    void testLikeWildcardsInInputAreLiteral() {
+        Long percent = saveItem("Скидка 100%", "", true);
+        saveItem("Скидка 1000", "", true);
+        saveItem("Пульт_ТВ", "", true);
+
+        assertEquals(List.of(percent), itemSearch.search("100%", 0, 10));
+        assertTrue(itemSearch.search("%", 0, 10).contains(percent));
+        assertEquals(1, itemSearch.search("%", 0, 10).size());
+        assertTrue(itemSearch.suggest("_", 10).isEmpty());
+    }
+
+    private Long saveItem(String name, String description, boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setOwner(owner);
+        return itemStorage.save(item).getId();
+    }
+}
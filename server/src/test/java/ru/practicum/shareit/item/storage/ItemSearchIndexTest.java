@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchDocument;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ItemStorage itemStorage = mock(ItemStorage.class);
+        when(itemStorage.streamAllSearchDocuments()).thenReturn(Stream.of(
+                new ItemSearchDocument(1L, "Дрель аккумуляторная", "Мощная, с двумя батареями", true),
+                new ItemSearchDocument(2L, "Ёлка искусственная", "Высота 2 м", true),
+                new ItemSearchDocument(3L, "Cordless drill", "Дрель для дачи", true),
+                new ItemSearchDocument(4L, "Дрель ударная", "Сломана", false)));
+        itemSearchIndex = new ItemSearchIndex(itemStorage);
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void testSearchByWordsAndPrefixes() {
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("ДРЕЛЬ", 0, 10));
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дре", 0, 10));
+        assertEquals(List.of(1L), itemSearchIndex.search("дрель, аккумулятор", 0, 10));
+        assertEquals(List.of(2L), itemSearchIndex.search("елка", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("Drill", 0, 10));
+        assertTrue(itemSearchIndex.search("рель", 0, 10).isEmpty());
+        assertTrue(itemSearchIndex.search("   ", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearchRankedAndPaged() {
+        itemSearchIndex.index(item(10L, "Дрель", "Дрель для бетона", true));
+        itemSearchIndex.index(item(11L, "Отвёртка", "Не дрель", true));
+
+        assertEquals(List.of(10L, 1L, 3L, 11L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дрель", 1, 2));
+        assertEquals(List.of(11L), itemSearchIndex.search("дрель", 3, 5));
+        assertTrue(itemSearchIndex.search("дрель", 4, 5).isEmpty());
+        assertEquals(List.of(10L), itemSearchIndex.search("дрель бетон", 0, 10));
+        assertEquals(List.of(1L), itemSearchIndex.search("мощн дрель", 0, 10));
+    }
+
+    @Test
+    void testSuggestNameWords() {
+        itemSearchIndex.index(item(10L, "Дрели набор", "", true));
+        itemSearchIndex.index(item(11L, "Дрель сетевая", "", true));
+
+        assertEquals(List.of("дрель", "дрели"), itemSearchIndex.suggest("ДРЕ", 10));
+        assertEquals(List.of("дрель"), itemSearchIndex.suggest("дре", 1));
+        assertEquals(List.of("аккумуляторная"), itemSearchIndex.suggest("новая дрель акк", 10));
+        assertTrue(itemSearchIndex.suggest("мощн", 10).isEmpty());
+        assertTrue(itemSearchIndex.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void testIndexReplacesPreviousVersion() {
+        itemSearchIndex.index(item(3L, "Cordless screwdriver", "Шуруповёрт", true));
+        assertEquals(List.of(1L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(3L), itemSearchIndex.search("шуруповерт", 0, 10));
+
+        itemSearchIndex.index(item(4L, "Дрель ударная", "Починена", true));
+        assertEquals(List.of(1L, 4L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void testRollbackRestoresPreviousVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemSearchIndex.index(item(1L, "Перфоратор", "Мощный", true));
+            itemSearchIndex.index(item(5L, "Дрель новая", "", true));
+            assertEquals(List.of(5L, 3L), itemSearchIndex.search("дрель", 0, 10));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дрель", 0, 10));
+        assertTrue(itemSearchIndex.search("перфоратор", 0, 10).isEmpty());
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
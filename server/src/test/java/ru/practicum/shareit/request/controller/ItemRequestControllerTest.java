@@ -8,17 +8,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.interfaces.ItemRequestService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -47,6 +53,7 @@ public class ItemRequestControllerTest {
         itemRequestDto = new ItemRequestDto();
         itemRequestDto.setId(requestId);
         itemRequestDto.setDescription("Test Request");
+        itemRequestDto.setCreated(LocalDateTime.of(2024, 1, 1, 12, 0));
     }
 
     @Test
@@ -85,8 +92,8 @@ public class ItemRequestControllerTest {
 
     @Test
     void testGetAll() throws Exception {
-        when(itemRequestService.getAllRequests(anyLong()))
-                .thenReturn(List.of(itemRequestDto));
+        when(itemRequestService.getAllRequests(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(Window.from(List.of(itemRequestDto), ScrollPosition::offset, true));
 
         mockMvc.perform(get("/requests/all")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -97,11 +104,13 @@ public class ItemRequestControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$.[0].id", is(itemRequestDto.getId().intValue())))
-                .andExpect(jsonPath("$.[0].description", is(itemRequestDto.getDescription())));
+                .andExpect(jsonPath("$.[0].description", is(itemRequestDto.getDescription())))
+                .andExpect(header().string("X-Next-Cursor", KeysetCursor.of(itemRequestDto.getCreated(), itemRequestDto.getId()).encode()));
     }
 
     @Test
     void testGetDetailedById() throws Exception {
+        itemRequestDto.setItems(List.of(new ItemSummaryDto(5L, "Стремянка", 2L, true, requestId)));
         when(itemRequestService.getRequestById(anyLong(), anyLong()))
                 .thenReturn(itemRequestDto);
 
@@ -113,6 +122,25 @@ public class ItemRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(itemRequestDto.getId().intValue())))
-                .andExpect(jsonPath("$.description", is(itemRequestDto.getDescription())));
+                .andExpect(jsonPath("$.description", is(itemRequestDto.getDescription())))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(5)))
+                .andExpect(jsonPath("$.items[0].name", is("Стремянка")))
+                .andExpect(jsonPath("$.items[0].ownerId", is(2)))
+                .andExpect(jsonPath("$.items[0].available", is(true)));
+    }
+
+    @Test
+    void testGetSuggestedItems() throws Exception {
+        when(itemRequestService.getSuggestedItems(userId, requestId))
+                .thenReturn(List.of(new ItemSummaryDto(5L, "Стремянка", 2L, true, requestId)));
+
+        mockMvc.perform(get("/requests/" + requestId + "/suggested-items")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(5)))
+                .andExpect(jsonPath("$[0].ownerId", is(2)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemRequestMatcherTest {
+    private static final long OWNER_ID = 1L;
+    private static final long REQUESTOR_ID = 2L;
+
+    private ItemRequestMatcher itemRequestMatcher;
+
+    @BeforeEach
+    void setUp() {
+        ItemRequestStorage itemRequestStorage = mock(ItemRequestStorage.class);
+        when(itemRequestStorage.streamAllDocuments()).thenReturn(Stream.of(
+                new ItemRequestDocument(10L, REQUESTOR_ID, "Нужна дрель для ремонта"),
+                new ItemRequestDocument(11L, REQUESTOR_ID, "Ищу ударную дрель с аккумулятором"),
+                new ItemRequestDocument(12L, REQUESTOR_ID, "Нужна стремянка"),
+                new ItemRequestDocument(13L, OWNER_ID, "Нужна дрель")));
+        itemRequestMatcher = new ItemRequestMatcher(itemRequestStorage, mock(JdbcTemplate.class));
+        itemRequestMatcher.rebuild();
+    }
+
+    @Test
+    void testMatchByStemsAndRank() {
+        assertEquals(List.of(new ItemRequestMatcher.Match(11L, 3), new ItemRequestMatcher.Match(10L, 2)),
+                itemRequestMatcher.match(item("Дрели", "Ударная, для бетона", null)));
+        assertEquals(List.of(new ItemRequestMatcher.Match(12L, 2)),
+                itemRequestMatcher.match(item("Стремянку отдам", "Нужна? Берите", null)));
+        assertEquals(List.of(new ItemRequestMatcher.Match(10L, 1)),
+                itemRequestMatcher.match(item("Пила", "Для ремонта не нужна", null)));
+    }
+
+    @Test
+    void testSkipOwnAndLinkedRequests() {
+        assertEquals(List.of(new ItemRequestMatcher.Match(10L, 2)),
+                itemRequestMatcher.match(item("Дрель", "Сетевая", 11L)));
+    }
+
+    @Test
+    void testRollbackRemovesRequest() {
+        User requestor = new User();
+        requestor.setId(REQUESTOR_ID);
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(14L);
+        itemRequest.setDescription("Тачка садовая");
+        itemRequest.setRequestor(requestor);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemRequestMatcher.index(itemRequest);
+            assertEquals(List.of(new ItemRequestMatcher.Match(14L, 2)),
+                    itemRequestMatcher.match(item("Тачки", "", null)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(itemRequestMatcher.match(item("Тачки", "", null)).isEmpty());
+    }
+
+    private static Item item(String name, String description, Long requestId) {
+        User owner = new User();
+        owner.setId(OWNER_ID);
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setOwner(owner);
+        if (requestId != null) {
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setId(requestId);
+            item.setRequest(itemRequest);
+        }
+        return item;
+    }
+}
@@ -1,20 +1,38 @@
 package ru.practicum.shareit.request.service;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSummaryDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.interfaces.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.interfaces.ItemRequestService;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +50,15 @@ public class ItemRequestServiceImplTest {
     @Autowired
     private UserStorage userStorage;
 
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private ItemRequestDto itemRequestDto;
     private Long userId;
     private Long requestId;
@@ -63,10 +90,41 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void testGetAll() {
-        List<ItemRequestDto> requests = itemRequestService.getAllRequests(userId);
-        assertFalse(requests.isEmpty());
-        assertEquals(1, requests.size());
-        assertEquals(itemRequestDto.getId(), requests.get(0).getId());
+        User other = new User();
+        other.setName("Other User");
+        other.setEmail("other@example.com");
+        other = userStorage.save(other);
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1);
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ItemRequest itemRequest = new ItemRequest();
+            itemRequest.setDescription("Other Request " + i);
+            itemRequest.setRequestor(other);
+            // Пары запросов с одинаковым временем проверяют порядок по id
+            itemRequest.setCreated(base.plusMinutes(i / 2));
+            newestFirst.addFirst(itemRequestStorage.save(itemRequest).getId());
+        }
+
+        assertTrue(itemRequestService.getAllRequests(other.getId(), null, 0, 10).getContent().stream()
+                .map(ItemRequestDto::getId)
+                .toList()
+                .contains(itemRequestDto.getId()));
+        Window<ItemRequestDto> page = itemRequestService.getAllRequests(userId, null, 0, 2);
+        assertEquals(newestFirst.subList(0, 2), page.getContent().stream().map(ItemRequestDto::getId).toList());
+        assertTrue(page.hasNext());
+        assertEquals("Other Request 4", page.getContent().getFirst().getDescription());
+
+        ItemRequestDto last = page.getContent().getLast();
+        page = itemRequestService.getAllRequests(userId, KeysetCursor.of(last.getCreated(), last.getId()).encode(), 0, 2);
+        assertEquals(newestFirst.subList(2, 4), page.getContent().stream().map(ItemRequestDto::getId).toList());
+
+        page = itemRequestService.getAllRequests(userId, null, 4, 2);
+        assertEquals(newestFirst.subList(4, 5), page.getContent().stream().map(ItemRequestDto::getId).toList());
+        assertFalse(page.hasNext());
+
+        assertThrows(ValidationException.class, () -> itemRequestService.getAllRequests(userId, "not-a-cursor", 0, 2));
+        assertThrows(ValidationException.class, () -> itemRequestService.getAllRequests(userId, null, -1, 2));
+        assertThrows(ValidationException.class, () -> itemRequestService.getAllRequests(userId, null, 0, 0));
     }
 
     @Test
@@ -77,12 +135,103 @@ public class ItemRequestServiceImplTest {
         assertEquals(itemRequestDto.getId(), requests.get(0).getId());
     }
 
+    @Test
+    void testGetAllDetailedByUserWithItems() {
+        List<Long> requestIds = new ArrayList<>(List.of(requestId));
+        for (int i = 0; i < 2; i++) {
+            ItemRequestDto request = new ItemRequestDto();
+            request.setDescription("Request " + i);
+            requestIds.add(itemRequestService.addItemRequest(userId, request).getId());
+        }
+        for (int i = 0; i < 3; i++) {
+            User owner = new User();
+            owner.setName("Owner " + i);
+            owner.setEmail("owner" + i + "@example.com");
+            owner = userStorage.save(owner);
+            // Первый запрос без ответов, на второй отвечают все владельцы, на третий только первый
+            for (int r = 1; r <= (i == 0 ? 2 : 1); r++) {
+                Item item = new Item();
+                item.setName("Item " + i + "-" + r);
+                item.setDescription("Description");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                item.setRequest(itemRequestStorage.findById(requestIds.get(r)).orElseThrow());
+                itemStorage.save(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Map<Long, ItemRequestDto> requests = itemRequestService.getAllUserRequests(userId).stream()
+                .collect(Collectors.toMap(ItemRequestDto::getId, Function.identity()));
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(3, requests.size());
+        assertTrue(requests.get(requestIds.get(0)).getItems().isEmpty());
+        assertEquals(3, requests.get(requestIds.get(1)).getItems().size());
+        assertEquals(List.of("Item 0-2"), requests.get(requestIds.get(2)).getItems().stream()
+                .map(ItemSummaryDto::name)
+                .toList());
+        ItemSummaryDto summary = requests.get(requestIds.get(2)).getItems().getFirst();
+        assertEquals(requestIds.get(2), summary.requestId());
+        assertTrue(summary.available());
+        assertNotNull(summary.ownerId());
+        // Проверка пользователя, запросы и все ответы на них, независимо от числа запросов
+        assertEquals(3, statements);
+    }
+
     @Test
     void testGetOneDetailedById() {
         ItemRequestDto request = itemRequestService.getRequestById(userId, requestId);
         assertNotNull(request);
         assertEquals(itemRequestDto.getId(), request.getId());
         assertEquals(itemRequestDto.getDescription(), request.getDescription());
+        assertTrue(request.getItems().isEmpty());
+    }
+
+    @Test
+    void testGetSuggestedItems() {
+        ItemRequestDto request = new ItemRequestDto();
+        request.setDescription("Нужна садовая тачка на выходные");
+        long tachkaRequestId = itemRequestService.addItemRequest(userId, request).getId();
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        long ownerId = userStorage.save(owner).getId();
+
+        long tachka = itemService.addItem(ItemDto.builder()
+                .name("Тачка")
+                .description("Одноколёсная, садовая")
+                .available(true)
+                .build(), ownerId).getId();
+        itemService.addItem(ItemDto.builder()
+                .name("Тележка")
+                .description("Для тачки не подходит")
+                .available(false)
+                .build(), ownerId);
+        itemService.addItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Мощная")
+                .available(true)
+                .build(), ownerId);
+        // Свои вещи к своим запросам не предлагаются
+        itemService.addItem(ItemDto.builder()
+                .name("Тачка")
+                .description("Своя")
+                .available(true)
+                .build(), userId);
+
+        List<ItemSummaryDto> suggested = itemRequestService.getSuggestedItems(userId, tachkaRequestId);
+        assertEquals(2, suggested.size());
+        assertEquals(tachka, suggested.getFirst().id());
+        assertEquals(ownerId, suggested.getFirst().ownerId());
+        assertEquals(tachkaRequestId, suggested.getFirst().requestId());
+        assertTrue(itemRequestService.getSuggestedItems(userId, requestId).isEmpty());
+        assertThrows(NotFoundException.class, () -> itemRequestService.getSuggestedItems(userId, 999L));
     }
 
     @Test
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserExistenceCacheTest {
+    private final UserStorage userStorage = mock(UserStorage.class);
+    private final UserExistenceCache cache = new UserExistenceCache(userStorage, 2);
+
+    @Test
+    void testValidateCachesExistingUser() {
+        when(userStorage.existsById(1L)).thenReturn(true);
+
+        cache.validateUser(1L);
+        cache.validateUser(1L);
+
+        verify(userStorage, times(1)).existsById(1L);
+        assertThrows(NotFoundException.class, () -> cache.validateUser(2L));
+        assertThrows(NotFoundException.class, () -> cache.validateUser(2L));
+        verify(userStorage, times(2)).existsById(2L);
+    }
+
+    @Test
+    void testMarkAndEvictLeastRecentlyUsed() {
+        cache.markExists(1L);
+        cache.markExists(2L);
+        cache.validateUser(1L);
+        cache.markExists(3L);
+
+        cache.validateUser(1L);
+        cache.validateUser(3L);
+        verify(userStorage, never()).existsById(1L);
+        verify(userStorage, never()).existsById(3L);
+        assertThrows(NotFoundException.class, () -> cache.validateUser(2L));
+    }
+
+    @Test
+    void testMarkedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.markExists(1L);
+            cache.markExists(2L);
+            assertThrows(NotFoundException.class, () -> cache.validateUser(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().getFirst().afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.validateUser(1L);
+        assertThrows(NotFoundException.class, () -> cache.validateUser(2L));
+    }
+
+    @Test
+    void testCheckCommittedAfterDeleteDoesNotRememberUser() throws Exception {
+        when(userStorage.existsById(1L)).thenReturn(true);
+        List<TransactionSynchronization> synchronizations;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.validateUser(1L);
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // Удаление без транзакции в другом потоке завершается, пока проверка ещё не зафиксирована
+        CompletableFuture.runAsync(() -> cache.evict(1L)).get(5, TimeUnit.SECONDS);
+        when(userStorage.existsById(1L)).thenReturn(false);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThrows(NotFoundException.class, () -> cache.validateUser(1L));
+        verify(userStorage, times(2)).existsById(1L);
+    }
+
+    @Test
+    void testReadBeforeDeleteDoesNotRememberUser() {
+        long generation = cache.generation(1L);
+        cache.evict(1L);
+        cache.markExists(1L, generation);
+
+        assertThrows(NotFoundException.class, () -> cache.validateUser(1L));
+    }
+}